@@ -0,0 +1,65 @@
+package pitheguy.sudoku.bench;
+
+import pitheguy.sudoku.solver.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Puzzles shared by the benchmarks, read from the file named by the {@code sudoku.bench.puzzles} system property
+ * (sudoku.csv by default). Only the first {@value #SCAN_LIMIT} puzzles are considered, so the same file always gives the
+ * same benchmark inputs.
+ * <p>
+ * The benchmarks use JMH and live in their own source root so the solver does not depend on it. Build them with the JMH
+ * annotation processor on the classpath and run {@code org.openjdk.jmh.Main} from the directory holding the puzzles, for
+ * example {@code java -cp <classes>:<jmh jars> org.openjdk.jmh.Main StrategyBenchmark -p strategy=XY_WING}.
+ */
+public class BenchmarkPuzzles {
+    public static final int SCAN_LIMIT = 100_000;
+
+    private BenchmarkPuzzles() {}
+
+    public static PuzzleStore open() {
+        Path path = Path.of(System.getProperty("sudoku.bench.puzzles", "sudoku.csv"));
+        try {
+            return PuzzleStore.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open benchmark puzzles " + path, e);
+        }
+    }
+
+    public static long scanLimit(PuzzleStore store) {
+        return Math.min(store.size(), SCAN_LIMIT);
+    }
+
+    public static int[] readDigits(PuzzleStore store, long puzzleNumber) {
+        int[] grid = new int[81];
+        try {
+            store.readDigits(puzzleNumber, grid);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return grid;
+    }
+
+    /**
+     * Returns up to {@code count} puzzles of the given tier, as grids with 0 for empty cells.
+     */
+    public static int[][] select(PuzzleTier tier, int count) {
+        PuzzleStore store = open();
+        DifficultyRater rater = new DifficultyRater();
+        List<int[]> selected = new ArrayList<>();
+        for (long puzzleNumber = 1; puzzleNumber <= scanLimit(store) && selected.size() < count; puzzleNumber++) {
+            try {
+                if (PuzzleTier.of(rater.rate(store, puzzleNumber)) == tier) selected.add(readDigits(store, puzzleNumber));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (selected.isEmpty()) throw new IllegalStateException("No " + tier + " puzzles in the benchmark puzzles");
+        return selected.toArray(int[][]::new);
+    }
+}
@@ -0,0 +1,78 @@
+package pitheguy.sudoku.bench;
+
+import org.openjdk.jmh.annotations.*;
+import pitheguy.sudoku.solver.Board;
+import pitheguy.sudoku.solver.PackedPuzzleFile;
+import pitheguy.sudoku.solver.PuzzleStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the ways a puzzle gets onto a board: from a line of text, from ASCII bytes, from packed bytes, and through a
+ * {@link PuzzleStore}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+    private static final int SIZE = 1024;
+
+    private final String[] lines = new String[SIZE];
+    private final int[] grid = new int[81];
+    private ByteBuffer ascii;
+    private ByteBuffer packed;
+    private PuzzleStore store;
+    private Board board;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        store = BenchmarkPuzzles.open();
+        if (store.size() < SIZE) throw new IllegalStateException("The benchmark puzzles must hold at least " + SIZE + " puzzles");
+        ascii = ByteBuffer.allocate(SIZE * 81);
+        packed = ByteBuffer.allocate(SIZE * PackedPuzzleFile.BYTES_PER_PUZZLE);
+        for (int i = 0; i < SIZE; i++) {
+            lines[i] = store.readPuzzle(i + 1);
+            ascii.put(i * 81, lines[i].substring(0, 81).getBytes(StandardCharsets.US_ASCII));
+            store.readDigits(i + 1, grid);
+            PackedPuzzleFile.encode(grid, packed, i * PackedPuzzleFile.BYTES_PER_PUZZLE);
+        }
+        board = new Board();
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (SIZE - 1);
+        return next;
+    }
+
+    @Benchmark
+    public Board loadFromString() {
+        board.loadPuzzle(lines[nextIndex()]);
+        return board;
+    }
+
+    @Benchmark
+    public Board loadFromAscii() {
+        board.loadPuzzle(ascii, nextIndex() * 81);
+        return board;
+    }
+
+    @Benchmark
+    public Board loadFromPacked() {
+        PackedPuzzleFile.decode(packed, nextIndex() * PackedPuzzleFile.BYTES_PER_PUZZLE, grid);
+        board.loadPuzzle(grid);
+        return board;
+    }
+
+    @Benchmark
+    public Board loadFromStore() throws IOException {
+        store.loadPuzzle(nextIndex() + 1, board);
+        return board;
+    }
+}
@@ -0,0 +1,104 @@
+package pitheguy.sudoku.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pitheguy.sudoku.solver.Board;
+import pitheguy.sudoku.solver.DigitCandidates;
+import pitheguy.sudoku.solver.Square;
+import pitheguy.sudoku.solver.SudokuSolver;
+import pitheguy.sudoku.util.SquareSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the candidate and square set operations the strategies are built from, on the candidates of the first benchmark
+ * puzzle halfway through solving it, so the masks look like the ones strategies see.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrimitivesBenchmark {
+    private static final int SIZE = 1024;
+
+    private final DigitCandidates[] candidates = new DigitCandidates[SIZE];
+    private final SquareSet[] squareSets = new SquareSet[SIZE];
+    private final Square[] squares = new Square[SIZE];
+    private final int[] digits = new int[SIZE];
+    private Board board;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        board = new Board();
+        board.loadPuzzle(BenchmarkPuzzles.readDigits(BenchmarkPuzzles.open(), 1));
+        SudokuSolver solver = new SudokuSolver(board);
+        List<Integer> marks = new ArrayList<>();
+        solver.setStepListener(step -> marks.add(board.mark()));
+        solver.solve();
+        if (!marks.isEmpty()) board.rollback(marks.get(marks.size() / 2));
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SIZE; i++) {
+            candidates[i] = board.getCandidates(random.nextInt(81)).copy();
+            squares[i] = board.getSquare(random.nextInt(81));
+            digits[i] = random.nextInt(1, 10);
+            squareSets[i] = new SquareSet(board);
+            for (int j = random.nextInt(4, 20); j > 0; j--) squareSets[i].add(random.nextInt(9), random.nextInt(9));
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (SIZE - 1);
+        return next;
+    }
+
+    @Benchmark
+    public boolean candidatesContains() {
+        int i = nextIndex();
+        return candidates[i].contains(digits[i]);
+    }
+
+    @Benchmark
+    public int candidatesAndCount() {
+        int i = nextIndex();
+        return candidates[i].and(candidates[(i + 1) & (SIZE - 1)]).count();
+    }
+
+    @Benchmark
+    public void candidatesGetAll(Blackhole blackhole) {
+        blackhole.consume(candidates[nextIndex()].getAllCandidates());
+    }
+
+    @Benchmark
+    public boolean squareSetContains() {
+        int i = nextIndex();
+        return squareSets[i].contains(squares[i]);
+    }
+
+    @Benchmark
+    public boolean squareSetContainsAny() {
+        int i = nextIndex();
+        return squareSets[i].containsAny(squareSets[(i + 1) & (SIZE - 1)]);
+    }
+
+    @Benchmark
+    public int squareSetIterate() {
+        int sum = 0;
+        for (Square square : squareSets[nextIndex()]) sum += square.getRow();
+        return sum;
+    }
+
+    @Benchmark
+    public int squareSetUnionSize() {
+        int i = nextIndex();
+        SquareSet union = new SquareSet(board);
+        union.addAll(squareSets[i]);
+        union.addAll(squareSets[(i + 1) & (SIZE - 1)]);
+        return union.size();
+    }
+}
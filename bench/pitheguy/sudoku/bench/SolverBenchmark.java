@@ -0,0 +1,45 @@
+package pitheguy.sudoku.bench;
+
+import org.openjdk.jmh.annotations.*;
+import pitheguy.sudoku.solver.Board;
+import pitheguy.sudoku.solver.PuzzleTier;
+import pitheguy.sudoku.solver.SolveResult;
+import pitheguy.sudoku.solver.SudokuSolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times {@link SudokuSolver#solve()} on puzzles of one difficulty tier, loading the next puzzle of the tier on every
+ * call.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+    @Param({"EASY", "MEDIUM", "HARD", "EXTREME"})
+    public PuzzleTier tier;
+    @Param("200")
+    public int puzzles;
+
+    private int[][] grids;
+    private Board board;
+    private SudokuSolver solver;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        grids = BenchmarkPuzzles.select(tier, puzzles);
+        board = new Board();
+        solver = new SudokuSolver(board);
+    }
+
+    @Benchmark
+    public SolveResult solve() {
+        board.loadPuzzle(grids[next]);
+        next = (next + 1) % grids.length;
+        return solver.solve();
+    }
+}
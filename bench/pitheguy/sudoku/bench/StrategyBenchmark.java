@@ -0,0 +1,68 @@
+package pitheguy.sudoku.bench;
+
+import org.openjdk.jmh.annotations.*;
+import pitheguy.sudoku.solver.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times one call of a strategy on a fixed board state, taken from the first benchmark puzzle where the solver reaches
+ * such a state. When {@code fires} is true the strategy makes progress from that state; otherwise the state is one the
+ * solver handed to a harder strategy, so this strategy searched and found nothing. Every call is rolled back, which is
+ * included in the time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StrategyBenchmark {
+    @Param
+    public StrategyType strategy;
+    @Param({"true", "false"})
+    public boolean fires;
+
+    private Board board;
+    private SolveStrategy target;
+    private int mark;
+
+    @Setup
+    public void setUp() {
+        PuzzleStore store = BenchmarkPuzzles.open();
+        board = new Board();
+        SudokuSolver solver = new SudokuSolver(board);
+        List<StrategyType> steps = new ArrayList<>();
+        List<Integer> marks = new ArrayList<>();
+        solver.setStepListener(step -> {
+            steps.add(step);
+            marks.add(board.mark());
+        });
+        for (long puzzleNumber = 1; puzzleNumber <= BenchmarkPuzzles.scanLimit(store); puzzleNumber++) {
+            steps.clear();
+            marks.clear();
+            board.loadPuzzle(BenchmarkPuzzles.readDigits(store, puzzleNumber));
+            solver.solve();
+            // The state before the first step is not marked, so only later steps are candidates
+            for (int i = 1; i < steps.size(); i++) {
+                StrategyType step = steps.get(i);
+                if (step == null || (fires ? step != strategy : step.compareTo(strategy) <= 0)) continue;
+                board.rollback(marks.get(i - 1));
+                target = strategy.create(board);
+                mark = board.mark();
+                return;
+            }
+        }
+        throw new IllegalStateException("No state in the benchmark puzzles where " + strategy + (fires ? " fires" : " runs without progress"));
+    }
+
+    @Benchmark
+    public boolean solveStep() {
+        target.reset();
+        boolean changed = target.solve();
+        board.rollback(mark);
+        return changed;
+    }
+}
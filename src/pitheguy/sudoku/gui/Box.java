@@ -1,6 +1,6 @@
 package pitheguy.sudoku.gui;
 
-import pitheguy.sudoku.solver.SolverUtils;
+import pitheguy.sudoku.solver.Board;
 
 import javax.swing.*;
 import javax.swing.border.LineBorder;
@@ -9,35 +9,29 @@ import java.util.Arrays;
 import java.util.List;
 
 public class Box extends JPanel {
-    private final Sudoku sudoku;
-    private final Square[] squares = new Square[9];
+    private final SquarePanel[] squares = new SquarePanel[9];
 
-    public Box(Sudoku sudoku, int row, int col) {
-        this.sudoku = sudoku;
+    public Box(Sudoku sudoku, Board board, int row, int col) {
         setLayout(new GridLayout(3, 3));
         setBorder(new LineBorder(Color.BLACK, 2));
         for (int x = 0; x < 3; x++) {
             for (int y = 0; y < 3; y++) {
-                squares[x * 3 + y] = new Square(sudoku, row * 3 + x, col * 3 + y);
+                squares[x * 3 + y] = new SquarePanel(sudoku, board.getSquare(row * 3 + x, col * 3 + y));
                 squares[x * 3 + y].setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
                 add(squares[x * 3 + y]);
             }
         }
     }
 
-    public Square getSquare(int x, int y) {
+    public SquarePanel getSquare(int x, int y) {
         return squares[x * 3 + y];
     }
 
-    public Square getSquare(int index) {
+    public SquarePanel getSquare(int index) {
         return squares[index];
     }
 
-    public List<Square> getSquares() {
+    public List<SquarePanel> getSquares() {
         return Arrays.stream(squares).toList();
     }
-
-    public boolean hasDigitSolved(int digit) {
-        return SolverUtils.hasDigitSolved(List.of(squares), digit);
-    }
 }
@@ -0,0 +1,83 @@
+package pitheguy.sudoku.gui;
+
+import pitheguy.sudoku.solver.DigitCandidates;
+import pitheguy.sudoku.solver.Square;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+public class SquarePanel extends JPanel {
+    private final Sudoku sudoku;
+    private final Square square;
+    private boolean invalid = false;
+
+    public SquarePanel(Sudoku sudoku, Square square) {
+        this.sudoku = sudoku;
+        this.square = square;
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (!square.isGiven()) sudoku.setSelected(square.getRow(), square.getCol());
+            }
+        });
+    }
+
+    public Square getSquare() {
+        return square;
+    }
+
+    public void setInvalid(boolean invalid) {
+        this.invalid = invalid;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g;
+        if (sudoku.isSelected(square.getRow(), square.getCol())) {
+            g2.setColor(new Color(128, 255, 128));
+            g2.fillRect(0, 0, getWidth(), getHeight());
+        }
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        int value = square.getValue();
+        DigitCandidates candidates = square.getCandidates();
+        if (value != 0) {
+            String text = String.valueOf(value);
+            Font font = new Font("Arial", Font.BOLD, getWidth() / 2);
+            g2.setFont(font);
+            FontMetrics metrics = g2.getFontMetrics(font);
+            int textWidth = metrics.stringWidth(text);
+            int textHeight = metrics.getAscent();
+            int x = (getWidth() - textWidth) / 2;
+            int y = (getHeight() + textHeight) / 2 - metrics.getDescent();
+            g2.setColor(getTextColor());
+            g2.drawString(text, x, y);
+        } else if (!candidates.isEmpty()) {
+            Font candidateFont = new Font("Arial", Font.PLAIN, getWidth() / 6);
+            g2.setFont(candidateFont);
+            FontMetrics candidateMetrics = g2.getFontMetrics(candidateFont);
+            int cellSize = getWidth() / 3;
+            for (int i = 1; i <= 9; i++) {
+                if (candidates.contains(i)) {
+                    int row = (i - 1) / 3;
+                    int col = (i - 1) % 3;
+                    String text = String.valueOf(i);
+                    int textWidth = candidateMetrics.stringWidth(text);
+                    int textHeight = candidateMetrics.getAscent();
+                    int x = col * cellSize + (cellSize - textWidth) / 2;
+                    int y = row * cellSize + (cellSize + textHeight) / 2 - candidateMetrics.getDescent();
+                    g2.setColor(Color.GRAY);
+                    g2.drawString(text, x, y);
+                }
+            }
+        }
+    }
+
+    private Color getTextColor() {
+        if (invalid) return Color.RED;
+        if (square.isGiven()) return Color.BLACK;
+        else return Color.GRAY;
+    }
+}
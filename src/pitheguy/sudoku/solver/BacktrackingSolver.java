@@ -0,0 +1,158 @@
+package pitheguy.sudoku.solver;
+
+import java.util.Arrays;
+
+/**
+ * A depth-first search over bitmasks that can finish any valid grid. Each level propagates naked and hidden singles
+ * and then branches on the empty cell with the fewest candidates. All state lives in preallocated arrays, so an
+ * instance should be reused, but not shared between threads.
+ */
+public class BacktrackingSolver {
+    private static final int ALL_DIGITS = 0x1FF;
+
+    // One copy of the grid and the per-unit placed digits for each search depth
+    private final int[][] grids = new int[82][81];
+    private final int[][] usedDigits = new int[82][Topology.UNIT_COUNT];
+    private final int[] solution = new int[81];
+    private int solutionCount;
+    private int solutionLimit;
+
+    /**
+     * Fills in the empty (zero) cells of {@code grid} with a solution. Returns false and leaves the grid untouched if
+     * there is none.
+     */
+    public boolean solve(int[] grid) {
+        if (findSolutions(grid, 1) == 0) return false;
+        System.arraycopy(solution, 0, grid, 0, 81);
+        return true;
+    }
+
+    /**
+     * Counts the solutions of {@code grid}, stopping as soon as {@code limit} have been found. A limit of 2 is enough
+     * to tell invalid (0), unique (1) and ambiguous (2) puzzles apart.
+     */
+    public int countSolutions(int[] grid, int limit) {
+        return findSolutions(grid, limit);
+    }
+
+    /**
+     * Counts the solutions of a puzzle given as at least 81 characters, where anything other than 1-9 is an empty cell.
+     */
+    public int countSolutions(String puzzle, int limit) {
+        if (puzzle.length() < 81) throw new IllegalArgumentException("Puzzle is too short: " + puzzle.length());
+        int[] grid = new int[81];
+        for (int cell = 0; cell < 81; cell++) {
+            char c = puzzle.charAt(cell);
+            grid[cell] = c >= '1' && c <= '9' ? c - '0' : 0;
+        }
+        return findSolutions(grid, limit);
+    }
+
+    private int findSolutions(int[] grid, int limit) {
+        solutionCount = 0;
+        solutionLimit = limit;
+        if (!load(grid)) return 0;
+        search(0);
+        return solutionCount;
+    }
+
+    private boolean load(int[] grid) {
+        int[] values = grids[0];
+        int[] used = usedDigits[0];
+        Arrays.fill(used, 0);
+        for (int cell = 0; cell < 81; cell++) {
+            int value = grid[cell];
+            values[cell] = value;
+            if (value == 0) continue;
+            int bit = 1 << (value - 1);
+            for (int unit : Topology.UNITS_OF[cell]) {
+                if ((used[unit] & bit) != 0) return false;
+                used[unit] |= bit;
+            }
+        }
+        return true;
+    }
+
+    // Returns true once enough solutions have been found to stop searching
+    private boolean search(int depth) {
+        int[] values = grids[depth];
+        int[] used = usedDigits[depth];
+        if (!propagate(values, used)) return false;
+        int bestCell = -1;
+        int bestMask = 0;
+        int bestCount = 10;
+        for (int cell = 0; cell < 81; cell++) {
+            if (values[cell] != 0) continue;
+            int mask = candidates(used, cell);
+            int count = Integer.bitCount(mask);
+            if (count < bestCount) {
+                bestCell = cell;
+                bestMask = mask;
+                bestCount = count;
+                if (count == 2) break;
+            }
+        }
+        if (bestCell == -1) {
+            if (solutionCount++ == 0) System.arraycopy(values, 0, solution, 0, 81);
+            return solutionCount >= solutionLimit;
+        }
+        int[] nextValues = grids[depth + 1];
+        int[] nextUsed = usedDigits[depth + 1];
+        for (int mask = bestMask; mask != 0; mask &= mask - 1) {
+            System.arraycopy(values, 0, nextValues, 0, 81);
+            System.arraycopy(used, 0, nextUsed, 0, Topology.UNIT_COUNT);
+            place(nextValues, nextUsed, bestCell, Integer.numberOfTrailingZeros(mask));
+            if (search(depth + 1)) return true;
+        }
+        return false;
+    }
+
+    // Places naked and hidden singles until none are left. Returns false on a contradiction.
+    private static boolean propagate(int[] values, int[] used) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int cell = 0; cell < 81; cell++) {
+                if (values[cell] != 0) continue;
+                int mask = candidates(used, cell);
+                if (mask == 0) return false;
+                if ((mask & (mask - 1)) == 0) {
+                    place(values, used, cell, Integer.numberOfTrailingZeros(mask));
+                    changed = true;
+                }
+            }
+            for (int unit = 0; unit < Topology.UNIT_COUNT; unit++) {
+                int once = 0;
+                int twice = 0;
+                for (int cell : Topology.UNIT_CELLS[unit]) {
+                    if (values[cell] != 0) continue;
+                    int mask = candidates(used, cell);
+                    twice |= once & mask;
+                    once |= mask;
+                }
+                if ((once | used[unit]) != ALL_DIGITS) return false;
+                int singles = once & ~twice;
+                if (singles == 0) continue;
+                for (int cell : Topology.UNIT_CELLS[unit]) {
+                    if (values[cell] != 0) continue;
+                    int mask = candidates(used, cell) & singles;
+                    if (mask == 0) continue;
+                    if ((mask & (mask - 1)) != 0) return false;
+                    place(values, used, cell, Integer.numberOfTrailingZeros(mask));
+                    changed = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int candidates(int[] used, int cell) {
+        int[] units = Topology.UNITS_OF[cell];
+        return ~(used[units[0]] | used[units[1]] | used[units[2]]) & ALL_DIGITS;
+    }
+
+    private static void place(int[] values, int[] used, int cell, int digitIndex) {
+        values[cell] = digitIndex + 1;
+        for (int unit : Topology.UNITS_OF[cell]) used[unit] |= 1 << digitIndex;
+    }
+}
@@ -0,0 +1,234 @@
+package pitheguy.sudoku.solver;
+
+import org.apache.commons.cli.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * Measures solver throughput and latency on fixed puzzle sets, one per {@link PuzzleTier}.
+ * <p>
+ * With {@code -build} the tier files are created from a corpus by rating its puzzles in file order and keeping the first
+ * ones of each tier, so the same corpus always gives the same files. Otherwise each requested tier is loaded into memory
+ * and solved in full passes: the warm-up passes let the JIT settle and are discarded, and the measured passes give
+ * puzzles per second and per-puzzle latency. Means are reported with a 95% confidence interval over the measured
+ * passes, and every report names the tier version and file checksum so results are only compared on identical input.
+ */
+public class BenchmarkSuite {
+    private static final int BUILD_CHUNK = 4096;
+    // Two-sided 95% critical values of Student's t distribution for 1 to 30 degrees of freedom
+    private static final double[] T_95 = {12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228, 2.201,
+            2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086, 2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052,
+            2.048, 2.045, 2.042};
+
+    public static void main(String[] args) throws ParseException {
+        CommandLineParser parser = new DefaultParser();
+        CommandLine commandLine = parser.parse(createOptions(), args);
+        Path directory = Path.of(commandLine.getOptionValue("dir", "benchmarks"));
+        if (commandLine.hasOption("build")) {
+            Path input = Path.of(commandLine.getOptionValue("input", "sudoku.csv"));
+            int size = Integer.parseInt(commandLine.getOptionValue("size", "1000"));
+            try {
+                buildTiers(PuzzleStore.open(input), directory, size);
+            } catch (IOException | UncheckedIOException e) {
+                System.err.println("Failed to build benchmark tiers: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        List<PuzzleTier> tiers = parseTiers(commandLine.getOptionValue("tier", "all"));
+        int warmup = Integer.parseInt(commandLine.getOptionValue("warmup", "3"));
+        int iterations = Integer.parseInt(commandLine.getOptionValue("iterations", "10"));
+        int threads = Integer.parseInt(commandLine.getOptionValue("threads", "1"));
+        if (iterations < 1 || warmup < 0 || threads < 1) {
+            System.err.println("Iterations and threads must be positive and warm-up must not be negative");
+            System.exit(1);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (PuzzleTier tier : tiers) {
+                Path file = directory.resolve(tier.getFileName());
+                try {
+                    int[][] puzzles = loadTier(file);
+                    if (puzzles.length == 0) {
+                        System.out.println("Skipping " + tier + ": " + file + " is empty");
+                        continue;
+                    }
+                    System.out.printf("Tier %s v%d: %d puzzles, checksum %08x, %d warm-up and %d measured iterations on %d thread%s%n",
+                            tier, PuzzleTier.VERSION, puzzles.length, checksum(file), warmup, iterations, threads, threads == 1 ? "" : "s");
+                    benchmark(puzzles, warmup, iterations, threads, executor);
+                } catch (IOException e) {
+                    System.err.println("Failed to load " + tier + " tier from " + file + ": " + e.getMessage());
+                    System.exit(1);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public static Options createOptions() {
+        Options options = new Options();
+        options.addOption("build", "Build the tier files from a corpus instead of running the benchmark");
+        options.addOption("input", true, "Corpus to build the tier files from, defaults to sudoku.csv");
+        options.addOption("size", true, "Puzzles per tier when building, defaults to 1000");
+        options.addOption("dir", true, "Directory holding the tier files, defaults to benchmarks");
+        options.addOption("tier", true, "Comma-separated tiers to run (easy, medium, hard, extreme), defaults to all");
+        options.addOption("warmup", true, "Warm-up passes over each tier, discarded, defaults to 3");
+        options.addOption("iterations", true, "Measured passes over each tier, defaults to 10");
+        options.addOption("threads", true, "Solver threads, defaults to 1");
+        return options;
+    }
+
+    private static List<PuzzleTier> parseTiers(String value) {
+        if (value.equalsIgnoreCase("all")) return List.of(PuzzleTier.values());
+        List<PuzzleTier> tiers = new ArrayList<>();
+        for (String name : value.split(",")) {
+            try {
+                tiers.add(PuzzleTier.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown tier: " + name);
+                System.exit(1);
+            }
+        }
+        return tiers;
+    }
+
+    /**
+     * Writes the first {@code size} puzzles of each tier in {@code store} to their tier files in {@code directory}.
+     * Puzzles are rated in parallel a chunk at a time but assigned in file order.
+     */
+    public static void buildTiers(PuzzleStore store, Path directory, int size) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Files.createDirectories(directory);
+        ThreadLocal<DifficultyRater> threadLocalRater = ThreadLocal.withInitial(DifficultyRater::new);
+        PuzzleTier[] values = PuzzleTier.values();
+        List<List<String>> selected = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) selected.add(new ArrayList<>());
+        long next = 1;
+        while (next <= store.size() && selected.stream().anyMatch(list -> list.size() < size)) {
+            long first = next;
+            int count = (int) Math.min(BUILD_CHUNK, store.size() - first + 1);
+            int[] tiers = IntStream.range(0, count).parallel().map(i -> {
+                try {
+                    return PuzzleTier.of(threadLocalRater.get().rate(store, first + i)).ordinal();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).toArray();
+            for (int i = 0; i < count; i++) {
+                List<String> list = selected.get(tiers[i]);
+                if (list.size() < size) list.add(store.readPuzzle(first + i));
+            }
+            next += count;
+        }
+        for (PuzzleTier tier : values) {
+            Path file = directory.resolve(tier.getFileName());
+            List<String> puzzles = selected.get(tier.ordinal());
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+                for (String puzzle : puzzles) writer.write(puzzle + "\n");
+            }
+            String note = puzzles.size() < size ? " (the corpus ran out)" : "";
+            System.out.printf("Wrote %d %s puzzles to %s%s%n", puzzles.size(), tier, file, note);
+        }
+        double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
+        System.out.printf("Rated %d puzzles in %.2f seconds%n", next - 1, totalTime);
+    }
+
+    private static int[][] loadTier(Path file) throws IOException {
+        PuzzleStore store = PuzzleStore.open(file);
+        int[][] puzzles = new int[(int) store.size()][81];
+        for (int i = 0; i < puzzles.length; i++) store.readDigits(i + 1, puzzles[i]);
+        return puzzles;
+    }
+
+    private static long checksum(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(file));
+        return crc.getValue();
+    }
+
+    private static void benchmark(int[][] puzzles, int warmup, int iterations, int threads, ExecutorService executor) {
+        SudokuSolver[] solvers = new SudokuSolver[threads];
+        for (int i = 0; i < threads; i++) solvers[i] = new SudokuSolver(new Board());
+        long[] latencies = new long[puzzles.length];
+        for (int i = 0; i < warmup; i++) runPass(puzzles, latencies, solvers, executor);
+        long[] allLatencies = new long[puzzles.length * iterations];
+        double[] throughputs = new double[iterations];
+        double[] meanLatencies = new double[iterations];
+        int unsolved = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            unsolved = runPass(puzzles, latencies, solvers, executor);
+            long elapsed = System.nanoTime() - start;
+            throughputs[i] = puzzles.length * 1e9 / elapsed;
+            meanLatencies[i] = Arrays.stream(latencies).average().orElse(0);
+            System.arraycopy(latencies, 0, allLatencies, i * puzzles.length, puzzles.length);
+        }
+        Arrays.sort(allLatencies);
+        System.out.printf("  Throughput: %.1f +/- %.1f puzzles/s (95%% CI)%n", mean(throughputs), confidenceInterval(throughputs));
+        System.out.printf("  Latency: mean %.3f +/- %.3f ms, p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms%n",
+                mean(meanLatencies) / 1e6, confidenceInterval(meanLatencies) / 1e6, percentile(allLatencies, 50) / 1e6,
+                percentile(allLatencies, 90) / 1e6, percentile(allLatencies, 99) / 1e6, percentile(allLatencies, 99.9) / 1e6,
+                allLatencies[allLatencies.length - 1] / 1e6);
+        if (unsolved > 0) System.out.println("  Unsolved: " + unsolved);
+        if (iterations == 1) System.out.println("  Confidence intervals need at least two measured iterations");
+    }
+
+    // Solves every puzzle once, thread t taking puzzles t, t + threads, ..., and returns how many were left unsolved
+    private static int runPass(int[][] puzzles, long[] latencies, SudokuSolver[] solvers, ExecutorService executor) {
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < solvers.length; t++) {
+            int first = t;
+            SudokuSolver solver = solvers[t];
+            futures.add(executor.submit(() -> {
+                int unsolved = 0;
+                for (int i = first; i < puzzles.length; i += solvers.length) {
+                    long start = System.nanoTime();
+                    solver.getBoard().loadPuzzle(puzzles[i]);
+                    if (solver.solve() == SolveResult.UNSOLVED) unsolved++;
+                    latencies[i] = System.nanoTime() - start;
+                }
+                return unsolved;
+            }));
+        }
+        int unsolved = 0;
+        try {
+            for (Future<Integer> future : futures) unsolved += future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return unsolved;
+    }
+
+    private static double mean(double[] values) {
+        return Arrays.stream(values).average().orElse(0);
+    }
+
+    /**
+     * Returns the half-width of the 95% confidence interval of the mean of {@code values}, or 0 for fewer than two.
+     */
+    private static double confidenceInterval(double[] values) {
+        int n = values.length;
+        if (n < 2) return 0;
+        double mean = mean(values);
+        double sumOfSquares = 0;
+        for (double value : values) sumOfSquares += (value - mean) * (value - mean);
+        double standardError = Math.sqrt(sumOfSquares / (n - 1) / n);
+        double t = n - 1 <= T_95.length ? T_95[n - 2] : 1.96;
+        return t * standardError;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,432 @@
+package pitheguy.sudoku.solver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.Consumer;
+
+public final class Board {
+    static final int VALUE_ENTRY = 1 << 16;
+    private final int[] values = new int[81];
+    private final boolean[] givens = new boolean[81];
+    private final short[] cellMasks = new short[81];
+    private final long[] digitPositions = new long[18];
+    private final short[] unitPositions = new short[Topology.UNIT_COUNT * 9];
+    private final short[] unitValues = new short[Topology.UNIT_COUNT];
+    private final DigitCandidates[] cellCandidates = new DigitCandidates[81];
+    private final Square[] squares = new Square[81];
+    private final List<Square> allSquares;
+    private final List<List<Square>> units = new ArrayList<>(Topology.UNIT_COUNT);
+    private String puzzle = "";
+    private long eliminationCount;
+    private long placementCount;
+    private long stamp;
+    private final long[] cellStamps = new long[81];
+    private final long[] digitStamps = new long[9];
+    private final long[] unitStamps = new long[Topology.UNIT_COUNT];
+    private int[] trail = new int[256];
+    private int trailSize;
+    private boolean rollingBack;
+
+    public Board() {
+        for (int cell = 0; cell < 81; cell++) {
+            squares[cell] = new Square(this, cell / 9, cell % 9);
+            cellCandidates[cell] = new CellCandidates(cell);
+        }
+        allSquares = List.of(squares);
+        for (int[] cells : Topology.UNIT_CELLS) {
+            Square[] unit = new Square[9];
+            for (int i = 0; i < 9; i++) unit[i] = squares[cells[i]];
+            units.add(List.of(unit));
+        }
+    }
+
+    public int getValue(int cell) {
+        return values[cell];
+    }
+
+    void setValue(int cell, int value) {
+        int oldValue = values[cell];
+        if (oldValue == value) return;
+        values[cell] = value;
+        record(cell, oldValue, true);
+        touch(cell, cellMasks[cell] | digitBit(oldValue) | digitBit(value));
+        if (oldValue == 0) {
+            if (!rollingBack) placementCount++;
+            updatePositions(cell, cellMasks[cell], 0);
+        } else if (value == 0) updatePositions(cell, 0, cellMasks[cell]);
+        for (int unit : Topology.UNITS_OF[cell]) updateUnitValues(unit);
+    }
+
+    /**
+     * Sets the value of a cell and, when placing a digit, removes it from the candidates of every unsolved peer.
+     */
+    void placeValue(int cell, int value) {
+        setValue(cell, value);
+        if (value == 0) return;
+        for (int peer : Topology.PEERS[cell]) if (values[peer] == 0) removeCandidate(peer, value);
+    }
+
+    public boolean isGiven(int cell) {
+        return givens[cell];
+    }
+
+    void setGiven(int cell, boolean given) {
+        givens[cell] = given;
+    }
+
+    public DigitCandidates getCandidates(int cell) {
+        return cellCandidates[cell];
+    }
+
+    public short getCandidateMask(int cell) {
+        return cellMasks[cell];
+    }
+
+    public boolean setCandidateMask(int cell, short mask) {
+        short oldMask = cellMasks[cell];
+        if (oldMask == mask) return false;
+        cellMasks[cell] = mask;
+        record(cell, oldMask, false);
+        touch(cell, oldMask ^ mask);
+        if (values[cell] == 0) {
+            if (!rollingBack) eliminationCount += Integer.bitCount(oldMask & ~mask & 0x1FF);
+            updatePositions(cell, oldMask, mask);
+        }
+        return true;
+    }
+
+    public boolean removeCandidate(int cell, int digit) {
+        return setCandidateMask(cell, (short) (cellMasks[cell] & ~(1 << (digit - 1))));
+    }
+
+    /**
+     * Returns the unsolved cells 0-63 that still have {@code digit} as a candidate, one bit per cell.
+     */
+    public long getDigitPositionsLow(int digit) {
+        return digitPositions[(digit - 1) * 2];
+    }
+
+    /**
+     * Returns the unsolved cells 64-80 that still have {@code digit} as a candidate, bit 0 being cell 64.
+     */
+    public long getDigitPositionsHigh(int digit) {
+        return digitPositions[(digit - 1) * 2 + 1];
+    }
+
+    /**
+     * Returns the positions within {@code unit} of the unsolved cells that still have {@code digit} as a candidate.
+     */
+    public int getUnitPositions(int unit, int digit) {
+        return unitPositions[unit * 9 + digit - 1];
+    }
+
+    public int getUnitValues(int unit) {
+        return unitValues[unit];
+    }
+
+    public boolean hasDigitSolved(int unit, int digit) {
+        return (unitValues[unit] & (1 << (digit - 1))) != 0;
+    }
+
+    /**
+     * Returns the number of candidates removed from unsolved cells since this board was created.
+     */
+    public long getEliminationCount() {
+        return eliminationCount;
+    }
+
+    /**
+     * Returns the number of times a value was placed in an empty cell since this board was created.
+     */
+    public long getPlacementCount() {
+        return placementCount;
+    }
+
+    /**
+     * Returns a mark for the current state that {@link #rollback(int)} can later return to. Marks are invalidated by
+     * loading a puzzle and by rolling back past them.
+     */
+    public int mark() {
+        return trailSize;
+    }
+
+    /**
+     * Undoes every value and candidate change made since the given mark, most recent first.
+     */
+    public void rollback(int mark) {
+        if (mark < 0 || mark > trailSize) throw new IllegalArgumentException("Invalid trail mark: " + mark);
+        rollingBack = true;
+        try {
+            while (trailSize > mark) {
+                int entry = trail[--trailSize];
+                int cell = (entry >>> 9) & 0x7F;
+                int old = entry & 0x1FF;
+                if ((entry & VALUE_ENTRY) != 0) setValue(cell, old);
+                else setCandidateMask(cell, (short) old);
+            }
+        } finally {
+            rollingBack = false;
+        }
+    }
+
+    // Trail entries are VALUE_ENTRY for value changes, the cell shifted left by 9 and the old value or candidate mask
+    int getTrailEntry(int position) {
+        return trail[position];
+    }
+
+    private void record(int cell, int old, boolean isValue) {
+        if (rollingBack) return;
+        if (trailSize == trail.length) trail = Arrays.copyOf(trail, trailSize * 2);
+        trail[trailSize++] = (isValue ? VALUE_ENTRY : 0) | cell << 9 | (old & 0x1FF);
+    }
+
+    /**
+     * Returns the stamp of the most recent change to this board. Stamps only ever increase, so a strategy can remember
+     * the stamp at which it last ran and later compare it with the stamps below to see whether anything it reads has
+     * changed since.
+     */
+    public long getStamp() {
+        return stamp;
+    }
+
+    public long getCellStamp(int cell) {
+        return cellStamps[cell];
+    }
+
+    public long getDigitStamp(int digit) {
+        return digitStamps[digit - 1];
+    }
+
+    public long getUnitStamp(int unit) {
+        return unitStamps[unit];
+    }
+
+    private void touch(int cell, int digitMask) {
+        stamp++;
+        cellStamps[cell] = stamp;
+        for (int unit : Topology.UNITS_OF[cell]) unitStamps[unit] = stamp;
+        for (digitMask &= 0x1FF; digitMask != 0; digitMask &= digitMask - 1) digitStamps[Integer.numberOfTrailingZeros(digitMask)] = stamp;
+    }
+
+    private void touchAll() {
+        stamp++;
+        Arrays.fill(cellStamps, stamp);
+        Arrays.fill(digitStamps, stamp);
+        Arrays.fill(unitStamps, stamp);
+    }
+
+    private static int digitBit(int digit) {
+        return digit == 0 ? 0 : 1 << (digit - 1);
+    }
+
+    private void updatePositions(int cell, int oldMask, int newMask) {
+        int word = cell >>> 6;
+        long bit = 1L << (cell & 63);
+        int[] units = Topology.UNITS_OF[cell];
+        int[] positions = Topology.POSITIONS_OF[cell];
+        for (int removed = oldMask & ~newMask; removed != 0; removed &= removed - 1) {
+            int digitIndex = Integer.numberOfTrailingZeros(removed);
+            digitPositions[digitIndex * 2 + word] &= ~bit;
+            for (int i = 0; i < 3; i++) unitPositions[units[i] * 9 + digitIndex] &= (short) ~(1 << positions[i]);
+        }
+        for (int added = newMask & ~oldMask; added != 0; added &= added - 1) {
+            int digitIndex = Integer.numberOfTrailingZeros(added);
+            digitPositions[digitIndex * 2 + word] |= bit;
+            for (int i = 0; i < 3; i++) unitPositions[units[i] * 9 + digitIndex] |= (short) (1 << positions[i]);
+        }
+    }
+
+    private void updateUnitValues(int unit) {
+        int mask = 0;
+        for (int cell : Topology.UNIT_CELLS[unit]) if (values[cell] != 0) mask |= 1 << (values[cell] - 1);
+        unitValues[unit] = (short) mask;
+    }
+
+    private void rebuildIndexes() {
+        touchAll();
+        trailSize = 0;
+        Arrays.fill(digitPositions, 0);
+        Arrays.fill(unitPositions, (short) 0);
+        for (int cell = 0; cell < 81; cell++) if (values[cell] == 0) updatePositions(cell, 0, cellMasks[cell]);
+        for (int unit = 0; unit < Topology.UNIT_COUNT; unit++) updateUnitValues(unit);
+    }
+
+    public Square getSquare(int row, int col) {
+        return squares[row * 9 + col];
+    }
+
+    public Square getSquare(int index) {
+        return squares[index];
+    }
+
+    public Square getSquare(String location) {
+        char rowChar = location.charAt(0);
+        char colChar = location.charAt(1);
+        return getSquare(rowChar - 'A', colChar - '1');
+    }
+
+    public boolean isSolved() {
+        for (int value : values) if (value == 0) return false;
+        return true;
+    }
+
+    /**
+     * Returns a read-only view of the given unit. Callers that need to modify the list must copy it first.
+     */
+    public List<Square> getUnit(int unit) {
+        return units.get(unit);
+    }
+
+    public List<Square> getGroup(GroupType type, int index) {
+        return units.get(type.unit(index));
+    }
+
+    public List<Square> getRow(int row) {
+        return units.get(Topology.rowUnit(row));
+    }
+
+    public List<Square> getColumn(int col) {
+        return units.get(Topology.columnUnit(col));
+    }
+
+    public List<Square> getBox(int box) {
+        return units.get(Topology.boxUnit(box));
+    }
+
+    public List<Square> getAllSquares() {
+        return allSquares;
+    }
+
+    public void forEachSquare(Consumer<Square> action) {
+        for (Square square : squares) action.accept(square);
+    }
+
+    public String getPuzzle() {
+        if (puzzle == null) {
+            StringBuilder sb = new StringBuilder();
+            for (int cell = 0; cell < 81; cell++) sb.append(givens[cell] ? values[cell] : 0);
+            puzzle = sb.toString();
+        }
+        return puzzle;
+    }
+
+    public void loadPuzzle(String puzzle) {
+        if (puzzle.startsWith("S9B")) {
+            loadFullBoard(puzzle);
+            return;
+        }
+        if (puzzle.contains(",")) puzzle = puzzle.substring(0, puzzle.indexOf(","));
+        this.puzzle = puzzle;
+        for (int cell = 0; cell < 81; cell++) {
+            int value = puzzle.charAt(cell) - '0';
+            values[cell] = value;
+            givens[cell] = value != 0;
+        }
+        resetCandidates();
+    }
+
+    /**
+     * Loads a puzzle from 81 values, with 0 for empty cells.
+     */
+    public void loadPuzzle(int[] grid) {
+        puzzle = null;
+        for (int cell = 0; cell < 81; cell++) {
+            values[cell] = grid[cell];
+            givens[cell] = grid[cell] != 0;
+        }
+        resetCandidates();
+    }
+
+    /**
+     * Loads a puzzle from 81 ASCII characters starting at {@code offset} in the buffer, without building a string.
+     * Anything other than 1-9 is an empty cell.
+     */
+    public void loadPuzzle(ByteBuffer buffer, int offset) {
+        puzzle = null;
+        for (int cell = 0; cell < 81; cell++) {
+            int value = buffer.get(offset + cell) - '0';
+            if (value < 1 || value > 9) value = 0;
+            values[cell] = value;
+            givens[cell] = value != 0;
+        }
+        resetCandidates();
+    }
+
+    public void resetCandidates() {
+        Arrays.fill(cellMasks, (short) 0b111_111_111);
+        rebuildIndexes();
+    }
+
+    public String toBoardString() {
+        StringBuilder sb = new StringBuilder();
+        for (int cell = 0; cell < 81; cell++) sb.append(values[cell]);
+        return sb.toString();
+    }
+
+    public String toFullBoardString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("S9B");
+        for (Square square : squares) {
+            short cellData;
+            if (square.isSolved()) {
+                cellData = (short) square.getValue();
+                if (square.isGiven()) cellData += 9;
+            } else {
+                cellData = (short) (square.getCandidates().pack() + 18);
+            }
+            String cellString = Integer.toString(cellData, Character.MAX_RADIX);
+            if (cellString.length() == 1) cellString = "0" + cellString;
+            sb.append(cellString);
+        }
+        return sb.toString();
+    }
+
+    private void loadFullBoard(String board) {
+        String oldPuzzle = puzzle;
+        try {
+            board = board.substring("S9B".length());
+            if (board.length() != 162) throw new IOException("Unexpected length: expected 162, got " + board.length());
+            Arrays.fill(values, 0);
+            rebuildIndexes();
+            for (int i = 0; i < 81; i++) {
+                Square square = squares[i];
+                String cellString = board.substring(i * 2, i * 2 + 2);
+                int cellData = Integer.parseInt(cellString, Character.MAX_RADIX);
+                if (cellData <= 0) throw new IOException("Invalid cell data: " + cellData);
+                else if (cellData <= 9) {
+                    square.setValue(cellData);
+                    square.setGiven(true);
+                } else if (cellData <= 18) {
+                    square.setValue(cellData - 9);
+                    square.setGiven(false);
+                } else if (cellData <= 529) {
+                    square.getCandidates().setFlags((short) (cellData - 18));
+                    square.setGiven(false);
+                } else throw new IOException("Invalid cell data: " + cellData);
+            }
+            puzzle = board;
+        } catch (IOException e) {
+            System.out.println("Warning: attempted to load malformed full board from clipboard: " + e.getMessage());
+            puzzle = oldPuzzle;
+        }
+    }
+
+    private class CellCandidates extends DigitCandidates {
+        private final int cell;
+
+        private CellCandidates(int cell) {
+            this.cell = cell;
+        }
+
+        @Override
+        protected short readFlags() {
+            return cellMasks[cell];
+        }
+
+        @Override
+        protected void writeFlags(short flags) {
+            setCandidateMask(cell, flags);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package pitheguy.sudoku.solver;
+
+import java.util.Arrays;
+
+/**
+ * A strategy whose deductions for one digit only depend on that digit's candidates and placements. Digits that found
+ * nothing last time and have not changed since are skipped.
+ */
+public abstract class ByDigitSolveStrategy extends SolveStrategy {
+    private final long[] fruitlessStamps = new long[9];
+
+    public ByDigitSolveStrategy(Board board) {
+        super(board);
+        Arrays.fill(fruitlessStamps, -1);
+    }
+
+    @Override
+    public boolean solve() {
+        boolean changed = false;
+        for (int digit = 1; digit <= 9; digit++) {
+            if (board.getDigitStamp(digit) <= fruitlessStamps[digit - 1]) continue;
+            if (solveDigit(digit)) changed = true;
+            else fruitlessStamps[digit - 1] = board.getStamp();
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean hasInputChangedSince(long stamp) {
+        for (int digit = 1; digit <= 9; digit++) if (board.getDigitStamp(digit) > stamp) return true;
+        return false;
+    }
+
+    protected abstract boolean solveDigit(int digit);
+}
@@ -1,26 +1,33 @@
 package pitheguy.sudoku.solver;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
-
+import java.util.Arrays;
 import java.util.List;
 
 public abstract class ByGroupSolveStrategy extends SolveStrategy {
+    private final long[] fruitlessStamps = new long[Topology.UNIT_COUNT];
 
-    public ByGroupSolveStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public ByGroupSolveStrategy(Board board) {
+        super(board);
+        Arrays.fill(fruitlessStamps, -1);
     }
 
     @Override
     public boolean solve() {
         boolean changed = false;
         for (int i = 0; i < 9; i++) {
-            changed |= solveGroup(sudoku.getRow(i));
-            changed |= solveGroup(sudoku.getColumn(i));
-            changed |= solveGroup(sudoku.getBox(i));
+            changed |= solveUnit(Topology.rowUnit(i));
+            changed |= solveUnit(Topology.columnUnit(i));
+            changed |= solveUnit(Topology.boxUnit(i));
         }
         return changed;
     }
 
+    private boolean solveUnit(int unit) {
+        if (board.getUnitStamp(unit) <= fruitlessStamps[unit]) return false;
+        if (solveGroup(board.getUnit(unit))) return true;
+        fruitlessStamps[unit] = board.getStamp();
+        return false;
+    }
+
     protected abstract boolean solveGroup(List<Square> squares);
 }
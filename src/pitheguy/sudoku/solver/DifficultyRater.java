@@ -0,0 +1,161 @@
+package pitheguy.sudoku.solver;
+
+import org.apache.commons.cli.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Rates puzzles by scoring every step the solver takes with the rating of the strategy that made it.
+ * <p>
+ * In batch mode every puzzle in sudoku.csv is rated in parallel and the results are written to a rating index: a
+ * header of magic, version and puzzle count (ints), then 8 bytes per puzzle in file order: result ordinal (byte),
+ * hardest step ordinal or -1 (byte), max rating in tenths (short), total rating in tenths saturated at 65535
+ * (unsigned short) and step count saturated at 65535 (unsigned short).
+ */
+public class DifficultyRater {
+    public static final int INDEX_MAGIC = 0x53524154;
+    public static final int INDEX_VERSION = 1;
+    public static final int INDEX_ENTRY_BYTES = 8;
+    private static final int RATE_CHUNK = 1 << 16;
+
+    private final SudokuSolver solver = new SudokuSolver(new Board());
+    private final int[] stepCounts = new int[StrategyType.values().length];
+    private int maxRatingTenths;
+    private int totalRatingTenths;
+    private StrategyType hardestStep;
+
+    public DifficultyRater() {
+        solver.setStepListener(this::recordStep);
+    }
+
+    private void recordStep(StrategyType type) {
+        if (type == null) return;
+        stepCounts[type.ordinal()]++;
+        int tenths = toTenths(type.getRating());
+        totalRatingTenths += tenths;
+        if (tenths > maxRatingTenths) {
+            maxRatingTenths = tenths;
+            hardestStep = type;
+        }
+    }
+
+    public PuzzleRating rate(String puzzle) {
+        solver.getBoard().loadPuzzle(puzzle);
+        return rateLoadedPuzzle();
+    }
+
+    public PuzzleRating rate(PuzzleStore store, long puzzleNumber) throws IOException {
+        store.loadPuzzle(puzzleNumber, solver.getBoard());
+        return rateLoadedPuzzle();
+    }
+
+    private PuzzleRating rateLoadedPuzzle() {
+        Arrays.fill(stepCounts, 0);
+        maxRatingTenths = 0;
+        totalRatingTenths = 0;
+        hardestStep = null;
+        SolveResult result = solver.solve();
+        return new PuzzleRating(result, maxRatingTenths / 10.0, totalRatingTenths / 10.0, hardestStep, stepCounts.clone());
+    }
+
+    private static int toTenths(double rating) {
+        return (int) Math.round(rating * 10);
+    }
+
+    public static void main(String[] args) throws ParseException {
+        CommandLineParser parser = new DefaultParser();
+        CommandLine commandLine = parser.parse(createOptions(), args);
+        if (commandLine.hasOption("puzzle")) {
+            int puzzleNumber = Integer.parseInt(commandLine.getOptionValue("puzzle"));
+            try {
+                System.out.print(new DifficultyRater().rate(PuzzleStore.getDefault(), puzzleNumber));
+            } catch (IOException e) {
+                System.err.println("Failed to read puzzle " + puzzleNumber + ": " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        File output = new File(commandLine.getOptionValue("output", "sudoku.rating"));
+        rateAll(output);
+    }
+
+    public static Options createOptions() {
+        Options options = new Options();
+        options.addOption("puzzle", true, "Rate a single puzzle and print its step histogram");
+        options.addOption("output", true, "File to write the rating index to");
+        return options;
+    }
+
+    private static void rateAll(File output) {
+        long startTime = System.currentTimeMillis();
+        PuzzleStore store;
+        try {
+            store = PuzzleStore.getDefault();
+        } catch (IOException e) {
+            System.err.println("Failed to load puzzles file");
+            System.exit(1);
+            return;
+        }
+        if (store.size() > Integer.MAX_VALUE) {
+            System.err.println("A rating index holds at most " + Integer.MAX_VALUE + " puzzles, but the puzzles file has " + store.size());
+            System.exit(1);
+        }
+        int count = (int) store.size();
+        ThreadLocal<DifficultyRater> threadLocalRater = ThreadLocal.withInitial(DifficultyRater::new);
+        AtomicInteger completed = new AtomicInteger(0);
+        int[] maxRatingCounts = new int[256];
+        // Rated a chunk at a time and written as each chunk completes, so memory use does not grow with the file
+        ByteBuffer chunk = ByteBuffer.allocate(RATE_CHUNK * INDEX_ENTRY_BYTES);
+        try (FileChannel fileChannel = new FileOutputStream(output).getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(12).putInt(INDEX_MAGIC).putInt(INDEX_VERSION).putInt(count);
+            header.flip();
+            while (header.hasRemaining()) fileChannel.write(header);
+            for (long first = 1; first <= count; first += RATE_CHUNK) {
+                long chunkStart = first;
+                int size = (int) Math.min(RATE_CHUNK, count - first + 1);
+                IntStream.range(0, size).parallel().forEach(i -> {
+                    PuzzleRating rating;
+                    try {
+                        rating = threadLocalRater.get().rate(store, chunkStart + i);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    int offset = i * INDEX_ENTRY_BYTES;
+                    chunk.put(offset, (byte) rating.result().ordinal());
+                    chunk.put(offset + 1, (byte) (rating.hardestStep() == null ? -1 : rating.hardestStep().ordinal()));
+                    chunk.putShort(offset + 2, (short) toTenths(rating.maxRating()));
+                    chunk.putChar(offset + 4, (char) Math.min(toTenths(rating.totalRating()), Character.MAX_VALUE));
+                    chunk.putChar(offset + 6, (char) Math.min(rating.getStepCount(), Character.MAX_VALUE));
+                    if (rating.result() == SolveResult.SOLVED) {
+                        synchronized (maxRatingCounts) {
+                            maxRatingCounts[toTenths(rating.maxRating())]++;
+                        }
+                    }
+                    int done = completed.incrementAndGet();
+                    if (done % 50000 == 0) System.out.printf("Progress: %d / %d%n", done, count);
+                });
+                chunk.clear().limit(size * INDEX_ENTRY_BYTES);
+                while (chunk.hasRemaining()) fileChannel.write(chunk);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Failed to write rating index: " + e.getMessage());
+            System.exit(1);
+        }
+        double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
+        System.out.printf("Rated %d puzzles in %.2f seconds%n", count, totalTime);
+        Map<Double, Integer> distribution = new TreeMap<>();
+        for (int tenths = 0; tenths < maxRatingCounts.length; tenths++)
+            if (maxRatingCounts[tenths] > 0) distribution.put(tenths / 10.0, maxRatingCounts[tenths]);
+        int unsolved = count - distribution.values().stream().mapToInt(Integer::intValue).sum();
+        System.out.println("Max rating distribution:");
+        distribution.forEach((rating, puzzleCount) -> System.out.printf("  %.1f: %d%n", rating, puzzleCount));
+        if (unsolved > 0) System.out.println("  unsolved: " + unsolved);
+    }
+}
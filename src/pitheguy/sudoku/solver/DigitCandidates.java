@@ -15,37 +15,51 @@ public class DigitCandidates {
         this.flags = flags;
     }
 
+    protected short readFlags() {
+        return flags;
+    }
+
+    protected void writeFlags(short flags) {
+        this.flags = flags;
+    }
+
     public boolean contains(int digit) {
         checkDigit(digit);
-        return (flags & (1 << (digit - 1))) != 0;
+        return (readFlags() & (1 << (digit - 1))) != 0;
     }
 
     public boolean containsAll(DigitCandidates candidates) {
-        return (this.flags & candidates.flags) == candidates.flags;
+        short otherFlags = candidates.readFlags();
+        return (readFlags() & otherFlags) == otherFlags;
     }
 
     public boolean remove(int digit) {
         checkDigit(digit);
-        boolean contains = contains(digit);
-        flags &= (short) ~(1 << (digit - 1));
-        return contains;
+        short oldFlags = readFlags();
+        short newFlags = (short) (oldFlags & ~(1 << (digit - 1)));
+        if (newFlags == oldFlags) return false;
+        writeFlags(newFlags);
+        return true;
     }
 
     public boolean removeAll(DigitCandidates candidates) {
-        short oldFlags = this.flags;
-        this.flags &= (short) ~candidates.flags;
-        return oldFlags != this.flags;
+        short oldFlags = readFlags();
+        short newFlags = (short) (oldFlags & ~candidates.readFlags());
+        if (newFlags == oldFlags) return false;
+        writeFlags(newFlags);
+        return true;
     }
 
     public void add(int digit) {
         checkDigit(digit);
-        flags |= (short) (1 << (digit - 1));
+        writeFlags((short) (readFlags() | (1 << (digit - 1))));
     }
 
     public boolean setFlags(short flags) {
-        short oldFlags = this.flags;
-        this.flags = flags;
-        return oldFlags != flags;
+        short oldFlags = readFlags();
+        if (oldFlags == flags) return false;
+        writeFlags(flags);
+        return true;
     }
 
     public static short getFlags(int... digits) {
@@ -63,21 +77,23 @@ public class DigitCandidates {
     }
 
     public DigitCandidates or(DigitCandidates other) {
-        return new DigitCandidates((short) (flags | other.flags));
+        return new DigitCandidates((short) (readFlags() | other.readFlags()));
     }
 
-    public DigitCandidates and(DigitCandidates other) {return new DigitCandidates((short) (flags & other.flags));}
+    public DigitCandidates and(DigitCandidates other) {return new DigitCandidates((short) (readFlags() & other.readFlags()));}
 
     public int count() {
-        return Integer.bitCount(flags);
+        return Integer.bitCount(readFlags());
     }
 
     public int getFirst() {
+        short flags = readFlags();
         if (flags == 0) return -1;
         return Integer.numberOfTrailingZeros(flags) + 1;
     }
 
     public List<Integer> getAllCandidates() {
+        short flags = readFlags();
         if (flags == 0) return new ArrayList<>();
         List<Integer> candidates = new ArrayList<>(Integer.bitCount(flags));
         int mask = flags;
@@ -89,19 +105,19 @@ public class DigitCandidates {
     }
 
     public boolean isEmpty() {
-        return flags == 0;
+        return readFlags() == 0;
     }
 
     public void reset() {
-        flags = (short) 0b111_111_111;
+        writeFlags((short) 0b111_111_111);
     }
 
     public DigitCandidates copy() {
-        return new DigitCandidates(flags);
+        return new DigitCandidates(readFlags());
     }
 
     public short pack() {
-        return flags;
+        return readFlags();
     }
 
     @Override
@@ -115,11 +131,11 @@ public class DigitCandidates {
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof DigitCandidates that)) return false;
-        return flags == that.flags;
+        return readFlags() == that.readFlags();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(flags);
+        return Objects.hashCode(readFlags());
     }
 }
@@ -1,17 +1,27 @@
 package pitheguy.sudoku.solver;
 
-import pitheguy.sudoku.gui.Square;
-
 public enum GroupType {
-    ROW,
-    COLUMN,
-    BOX;
+    ROW(Topology.ROW_OF, Topology.ROW_OFFSET),
+    COLUMN(Topology.COL_OF, Topology.COLUMN_OFFSET),
+    BOX(Topology.BOX_OF, Topology.BOX_OFFSET);
+
+    private final int[] indexOf;
+    private final int unitOffset;
+
+    GroupType(int[] indexOf, int unitOffset) {
+        this.indexOf = indexOf;
+        this.unitOffset = unitOffset;
+    }
 
     public int get(Square square) {
-        return switch (this) {
-            case ROW -> square.getRow();
-            case COLUMN -> square.getCol();
-            case BOX -> square.getBox();
-        };
+        return indexOf[square.getIndex()];
+    }
+
+    public int get(int cell) {
+        return indexOf[cell];
+    }
+
+    public int unit(int index) {
+        return unitOffset + index;
     }
 }
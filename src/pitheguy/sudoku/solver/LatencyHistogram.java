@@ -0,0 +1,130 @@
+package pitheguy.sudoku.solver;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values, usually nanosecond durations, that any number of threads can record into without
+ * locking. Values below {@value #SUB_BUCKETS} are counted exactly; above that every power of two is split into
+ * {@value #SUB_BUCKETS}/2 buckets, so any reported value is within about 3% of the recorded one. Memory use is fixed
+ * whatever the number or range of values, and histograms can be merged.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int BUCKETS = (63 - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS + SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        if (value < 0) throw new IllegalArgumentException("Negative value: " + value);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Adds every value recorded in {@code other} to this histogram.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = other.counts.get(i);
+            if (bucketCount != 0) counts.addAndGet(i, bucketCount);
+        }
+        count.add(other.getCount());
+        sum.add(other.getSum());
+        max.accumulate(other.getMax());
+    }
+
+    /**
+     * Writes the non-empty buckets, the sum and the maximum. Values recorded while this runs may be partly included.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        int nonEmpty = 0;
+        for (int i = 0; i < BUCKETS; i++) if (counts.get(i) != 0) nonEmpty++;
+        out.writeInt(nonEmpty);
+        for (int i = 0; i < BUCKETS && nonEmpty > 0; i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount == 0) continue;
+            out.writeShort(i);
+            out.writeLong(bucketCount);
+            nonEmpty--;
+        }
+        out.writeLong(getSum());
+        out.writeLong(getMax());
+    }
+
+    /**
+     * Adds the values of a histogram written by {@link #writeTo} to this one.
+     */
+    public void readFrom(DataInput in) throws IOException {
+        int nonEmpty = in.readInt();
+        for (int i = 0; i < nonEmpty; i++) {
+            int bucket = in.readUnsignedShort();
+            long bucketCount = in.readLong();
+            if (bucket >= BUCKETS || bucketCount < 0) throw new IOException("Corrupt histogram");
+            counts.addAndGet(bucket, bucketCount);
+            count.add(bucketCount);
+        }
+        sum.add(in.readLong());
+        max.accumulate(in.readLong());
+    }
+
+    static int bucketOf(long value) {
+        int magnitude = 64 - Long.numberOfLeadingZeros(value);
+        if (magnitude <= SUB_BUCKET_BITS) return (int) value;
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    // The largest value that falls into the bucket
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / HALF_SUB_BUCKETS - 1;
+        long subBucket = bucket - (long) shift * HALF_SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getSum() / count;
+    }
+
+    /**
+     * Returns the value that {@code percentile} percent of recorded values are at or below, or 0 if nothing was
+     * recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+        if (total == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) return Math.min(highestValueIn(i), getMax());
+        }
+        return getMax();
+    }
+}
@@ -0,0 +1,300 @@
+package pitheguy.sudoku.solver;
+
+import java.util.Arrays;
+
+/**
+ * Finds the minlex form of a puzzle: the lexicographically smallest 81-digit string, with 0 for empty cells, among all
+ * puzzles equivalent to it under transposition, band and row permutations, stack and column permutations and digit
+ * relabeling. Two puzzles are equivalent exactly when their minlex forms are equal.
+ * <p>
+ * The form is built one row at a time, keeping every partial transformation that ties for the smallest rows so far.
+ * Transposition, stack order and row choices are enumerated, but the order of columns within a stack is kept as an
+ * ordered partition of still interchangeable columns that each row refines: empty cells first, then already labeled
+ * digits in label order, then new digits, which take the next labels. Digits are labeled in order of first
+ * appearance, which is the smallest labeling for a given arrangement. All instance state is preallocated, so an
+ * instance should be reused, but not shared between threads.
+ */
+public class MinlexCanonicalizer {
+    // State layout: transposed, used rows, current band, next label, group starts, columns in order, labels by digit
+    private static final int TRANSPOSED = 0;
+    private static final int USED_ROWS = 1;
+    private static final int BAND = 2;
+    private static final int NEXT_LABEL = 3;
+    private static final int GROUP_STARTS = 4;
+    private static final int COLUMNS = 5;
+    private static final int LABELS = COLUMNS + 9;
+    private static final int STRIDE = LABELS + 10;
+    private static final int[][] STACK_ORDERS = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+
+    private final int[][] grids = new int[2][81];
+    private final int[] best = new int[9];
+    private final int[] rowDigits = new int[9];
+    private final int[] rowColumns = new int[9];
+    private final int[] rowGroupStarts = new int[1];
+    private final int[] newPositions = new int[9];
+    private final int[] rowDigitsSeen = new int[9];
+    private final int[] columnDigitsSeen = new int[9];
+    private int[] states = new int[64 * STRIDE];
+    private int[] nextStates = new int[64 * STRIDE];
+    private int stateCount;
+    private int nextCount;
+    private boolean bestSet;
+
+    /**
+     * Returns the minlex form of a puzzle given as at least 81 characters, where anything other than 1-9 is an empty
+     * cell.
+     */
+    public String canonicalize(String puzzle) {
+        if (puzzle.length() < 81) throw new IllegalArgumentException("Puzzle is too short: " + puzzle.length());
+        int[] grid = new int[81];
+        for (int cell = 0; cell < 81; cell++) {
+            char c = puzzle.charAt(cell);
+            grid[cell] = c >= '1' && c <= '9' ? c - '0' : 0;
+        }
+        int[] result = new int[81];
+        canonicalize(grid, result);
+        StringBuilder sb = new StringBuilder(81);
+        for (int value : result) sb.append(value);
+        return sb.toString();
+    }
+
+    /**
+     * Writes the minlex form of {@code grid}, with 0 for empty cells, into {@code result}.
+     *
+     * @throws IllegalArgumentException if a row or column repeats a digit, as such puzzles have no meaningful form
+     */
+    public void canonicalize(int[] grid, int[] result) {
+        int repeated = 0;
+        for (int cell = 0; cell < 81; cell++) {
+            int value = grid[cell];
+            grids[0][cell] = value;
+            grids[1][cell % 9 * 9 + cell / 9] = value;
+            if (value == 0) continue;
+            int bit = 1 << value;
+            repeated |= rowDigitsSeen[cell / 9] & bit | columnDigitsSeen[cell % 9] & bit;
+            rowDigitsSeen[cell / 9] |= bit;
+            columnDigitsSeen[cell % 9] |= bit;
+        }
+        Arrays.fill(rowDigitsSeen, 0);
+        Arrays.fill(columnDigitsSeen, 0);
+        if (repeated != 0) throw new IllegalArgumentException("Puzzle repeats a digit in a row or column");
+        // Every given of the first row takes a new label, so the first row only depends on how many givens each stack
+        // has. It is smallest with the fewest givens in the first stack, then the second, so only rows with the
+        // smallest sorted counts, with their stacks in ascending order, need a state.
+        int bestCounts = Integer.MAX_VALUE;
+        for (int transposed = 0; transposed < 2; transposed++)
+            for (int sourceRow = 0; sourceRow < 9; sourceRow++)
+                bestCounts = Math.min(bestCounts, sortedCounts(grids[transposed], sourceRow));
+        nextCount = 0;
+        bestSet = false;
+        for (int transposed = 0; transposed < 2; transposed++) {
+            for (int sourceRow = 0; sourceRow < 9; sourceRow++) {
+                if (sortedCounts(grids[transposed], sourceRow) != bestCounts) continue;
+                for (int[] stackOrder : STACK_ORDERS) {
+                    if (!isAscending(grids[transposed], sourceRow, stackOrder)) continue;
+                    stateCount = 0;
+                    int base = reserveState();
+                    states[base + TRANSPOSED] = transposed;
+                    states[base + USED_ROWS] = 0;
+                    states[base + BAND] = -1;
+                    states[base + NEXT_LABEL] = 1;
+                    states[base + GROUP_STARTS] = 1 | 1 << 3 | 1 << 6;
+                    for (int i = 0; i < 9; i++) states[base + COLUMNS + i] = stackOrder[i / 3] * 3 + i % 3;
+                    for (int digit = 0; digit <= 9; digit++) states[base + LABELS + digit] = 0;
+                    tryRow(base, sourceRow);
+                }
+            }
+        }
+        finishRow(0, result);
+        for (int row = 1; row < 9; row++) {
+            nextCount = 0;
+            bestSet = false;
+            for (int s = 0; s < stateCount; s++) {
+                int base = s * STRIDE;
+                int used = states[base + USED_ROWS];
+                if (row % 3 == 0) {
+                    for (int sourceRow = 0; sourceRow < 9; sourceRow++)
+                        if ((used & 7 << sourceRow / 3 * 3) == 0) tryRow(base, sourceRow);
+                } else {
+                    int band = states[base + BAND];
+                    for (int sourceRow = band * 3; sourceRow < band * 3 + 3; sourceRow++)
+                        if ((used & 1 << sourceRow) == 0) tryRow(base, sourceRow);
+                }
+            }
+            finishRow(row, result);
+        }
+    }
+
+    private static int givens(int[] grid, int row, int stack) {
+        int givens = 0;
+        for (int col = stack * 3; col < stack * 3 + 3; col++) if (grid[row * 9 + col] != 0) givens++;
+        return givens;
+    }
+
+    // Returns the stacks' given counts in ascending order as base 4 digits, so smaller is a smaller first row
+    private static int sortedCounts(int[] grid, int row) {
+        int a = givens(grid, row, 0), b = givens(grid, row, 1), c = givens(grid, row, 2);
+        int low = Math.min(a, Math.min(b, c)), high = Math.max(a, Math.max(b, c));
+        return low * 16 + (a + b + c - low - high) * 4 + high;
+    }
+
+    private static boolean isAscending(int[] grid, int row, int[] stackOrder) {
+        int previous = 0;
+        for (int stack : stackOrder) {
+            int givens = givens(grid, row, stack);
+            if (givens < previous) return false;
+            previous = givens;
+        }
+        return true;
+    }
+
+    private void finishRow(int row, int[] result) {
+        System.arraycopy(best, 0, result, row * 9, 9);
+        int[] swap = states;
+        states = nextStates;
+        nextStates = swap;
+        stateCount = nextCount;
+    }
+
+    private int reserveState() {
+        if ((stateCount + 1) * STRIDE > states.length) {
+            int[] grown = new int[states.length * 2];
+            System.arraycopy(states, 0, grown, 0, stateCount * STRIDE);
+            states = grown;
+        }
+        return stateCount++ * STRIDE;
+    }
+
+    // Places the source row next in the given state, and keeps the successors if the row ties or beats the best so far
+    private void tryRow(int base, int sourceRow) {
+        int comparison = arrangeRow(base, sourceRow);
+        if (comparison > 0) return;
+        if (comparison < 0) {
+            System.arraycopy(rowDigits, 0, best, 0, 9);
+            bestSet = true;
+            nextCount = 0;
+        }
+        addSuccessors(base, sourceRow);
+    }
+
+    /**
+     * Sorts each group of interchangeable columns of the state for the source row and writes the resulting digits and
+     * columns. Returns -1 if the row is smaller than the best so far, 0 if equal and 1 if larger, in which case the
+     * output is incomplete.
+     */
+    private int arrangeRow(int base, int sourceRow) {
+        int[] grid = grids[states[base + TRANSPOSED]];
+        int groupStarts = states[base + GROUP_STARTS] | 1 << 9;
+        int nextLabel = states[base + NEXT_LABEL];
+        int comparison = bestSet ? 0 : -1;
+        int newGroupStarts = 0;
+        int position = 0;
+        while (position < 9) {
+            int end = position + 1 + Integer.numberOfTrailingZeros(groupStarts >>> position + 1);
+            // Empty cells sort first, then labeled digits by label, then new digits in their current order
+            for (int p = position; p < end; p++) {
+                int column = states[base + COLUMNS + p];
+                int value = grid[sourceRow * 9 + column];
+                int key = value == 0 ? 0 : states[base + LABELS + value];
+                if (key == 0 && value != 0) key = 10 + p;
+                int insert = p;
+                while (insert > position && rowDigits[insert - 1] > key) {
+                    rowDigits[insert] = rowDigits[insert - 1];
+                    rowColumns[insert] = rowColumns[insert - 1];
+                    insert--;
+                }
+                rowDigits[insert] = key;
+                rowColumns[insert] = column;
+            }
+            newGroupStarts |= 1 << position;
+            for (int p = position; p < end; p++) {
+                if (rowDigits[p] == 0) continue;
+                newGroupStarts |= 1 << p;
+                if (rowDigits[p] >= 10) rowDigits[p] = nextLabel++;
+            }
+            for (int p = position; p < end && comparison == 0; p++) {
+                if (rowDigits[p] > best[p]) return 1;
+                if (rowDigits[p] < best[p]) comparison = -1;
+            }
+            position = end;
+        }
+        rowGroupStarts[0] = newGroupStarts;
+        return comparison;
+    }
+
+    /**
+     * Adds the states that follow from placing the source row as arranged by {@link #arrangeRow}. New digits that
+     * shared a group give the same row in any order, but label the digits differently, so every order is kept.
+     */
+    private void addSuccessors(int base, int sourceRow) {
+        int[] grid = grids[states[base + TRANSPOSED]];
+        int newCount = 0;
+        for (int p = 0; p < 9; p++) {
+            int value = grid[sourceRow * 9 + rowColumns[p]];
+            if (value != 0 && states[base + LABELS + value] == 0) newPositions[newCount++] = p;
+        }
+        addSuccessor(base, sourceRow, newCount, 0);
+    }
+
+    // Permutes the columns of new digits within each group, recursing from the new digit at index onwards
+    private void addSuccessor(int base, int sourceRow, int newCount, int index) {
+        if (index == newCount) {
+            writeSuccessor(base, sourceRow);
+            return;
+        }
+        // Only new digits from the same group can swap, and they are always last in it
+        int last = index;
+        while (last + 1 < newCount && sameOriginalGroup(base, newPositions[index], newPositions[last + 1])) last++;
+        if (last == index) {
+            addSuccessor(base, sourceRow, newCount, index + 1);
+            return;
+        }
+        permute(base, sourceRow, newCount, index, last);
+    }
+
+    private void permute(int base, int sourceRow, int newCount, int from, int last) {
+        if (from == last) {
+            addSuccessor(base, sourceRow, newCount, from + 1);
+            return;
+        }
+        for (int i = from; i <= last; i++) {
+            swapColumns(newPositions[from], newPositions[i]);
+            permute(base, sourceRow, newCount, from + 1, last);
+            swapColumns(newPositions[from], newPositions[i]);
+        }
+    }
+
+    private boolean sameOriginalGroup(int base, int first, int second) {
+        int groupStarts = states[base + GROUP_STARTS];
+        for (int p = first + 1; p <= second; p++) if ((groupStarts & 1 << p) != 0) return false;
+        return true;
+    }
+
+    private void swapColumns(int first, int second) {
+        int column = rowColumns[first];
+        rowColumns[first] = rowColumns[second];
+        rowColumns[second] = column;
+    }
+
+    private void writeSuccessor(int base, int sourceRow) {
+        if ((nextCount + 1) * STRIDE > nextStates.length) {
+            int[] grown = new int[nextStates.length * 2];
+            System.arraycopy(nextStates, 0, grown, 0, nextCount * STRIDE);
+            nextStates = grown;
+        }
+        int next = nextCount++ * STRIDE;
+        int[] grid = grids[states[base + TRANSPOSED]];
+        System.arraycopy(states, base, nextStates, next, STRIDE);
+        nextStates[next + USED_ROWS] |= 1 << sourceRow;
+        nextStates[next + BAND] = sourceRow / 3;
+        nextStates[next + GROUP_STARTS] = rowGroupStarts[0];
+        int nextLabel = states[base + NEXT_LABEL];
+        for (int p = 0; p < 9; p++) {
+            int column = rowColumns[p];
+            nextStates[next + COLUMNS + p] = column;
+            int value = grid[sourceRow * 9 + column];
+            if (value != 0 && nextStates[next + LABELS + value] == 0) nextStates[next + LABELS + value] = nextLabel++;
+        }
+        nextStates[next + NEXT_LABEL] = nextLabel;
+    }
+}
@@ -0,0 +1,126 @@
+package pitheguy.sudoku.solver;
+
+import org.apache.commons.cli.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * A binary puzzle file holding only the clues, packed two cells per byte (high nibble first), so each puzzle takes 41
+ * bytes instead of 164.
+ * <p>
+ * The file starts with a {@value #HEADER_BYTES} byte header: magic and version (ints), puzzle count (long), puzzles per
+ * block and reserved (ints) and the offset of the checksum table (long). The puzzles follow back to back, and the file
+ * ends with a table of one CRC32 per block of puzzles, which {@link PuzzleStore} checks the first time it reads from a
+ * block.
+ */
+public class PackedPuzzleFile {
+    public static final int MAGIC = 0x53444B42;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 32;
+    public static final int BYTES_PER_PUZZLE = 41;
+    public static final int PUZZLES_PER_BLOCK = 1024;
+    public static final String DEFAULT_FILE = "sudoku.bin";
+
+    public static void encode(int[] grid, ByteBuffer buffer, int offset) {
+        for (int i = 0; i < BYTES_PER_PUZZLE; i++) {
+            int high = grid[2 * i];
+            int low = 2 * i + 1 < 81 ? grid[2 * i + 1] : 0;
+            buffer.put(offset + i, (byte) (high << 4 | low));
+        }
+    }
+
+    public static void decode(ByteBuffer buffer, int offset, int[] grid) {
+        for (int i = 0; i < BYTES_PER_PUZZLE; i++) {
+            int packed = buffer.get(offset + i);
+            grid[2 * i] = packed >>> 4 & 0xF;
+            if (2 * i + 1 < 81) grid[2 * i + 1] = packed & 0xF;
+        }
+    }
+
+    public static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    public static long checksumTableOffset(long puzzleCount) {
+        return HEADER_BYTES + puzzleCount * BYTES_PER_PUZZLE;
+    }
+
+    public static int blockCount(long puzzleCount) {
+        return (int) ((puzzleCount + PUZZLES_PER_BLOCK - 1) / PUZZLES_PER_BLOCK);
+    }
+
+    /**
+     * Converts any puzzle file {@link PuzzleStore} can read into a packed file, encoding blocks in parallel.
+     */
+    public static void convert(PuzzleStore input, Path output) throws IOException {
+        long count = input.size();
+        int blocks = blockCount(count);
+        int[] checksums = new int[blocks];
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            AtomicInteger completed = new AtomicInteger(0);
+            IntStream.range(0, blocks).parallel().forEach(block -> {
+                long first = (long) block * PUZZLES_PER_BLOCK;
+                int puzzles = (int) Math.min(PUZZLES_PER_BLOCK, count - first);
+                ByteBuffer buffer = ByteBuffer.allocate(puzzles * BYTES_PER_PUZZLE);
+                int[] grid = new int[81];
+                try {
+                    for (int i = 0; i < puzzles; i++) {
+                        input.readDigits(first + i + 1, grid);
+                        encode(grid, buffer, i * BYTES_PER_PUZZLE);
+                    }
+                    checksums[block] = checksum(buffer, 0, buffer.limit());
+                    long position = HEADER_BYTES + first * BYTES_PER_PUZZLE;
+                    while (buffer.hasRemaining()) position += channel.write(buffer, position);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                int done = completed.incrementAndGet();
+                if (done % 1000 == 0) System.out.printf("Progress: %d / %d blocks%n", done, blocks);
+            });
+            ByteBuffer table = ByteBuffer.allocate(blocks * 4);
+            for (int checksum : checksums) table.putInt(checksum);
+            table.flip();
+            long position = checksumTableOffset(count);
+            while (table.hasRemaining()) position += channel.write(table, position);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(count).putInt(PUZZLES_PER_BLOCK).putInt(0).putLong(checksumTableOffset(count));
+            header.flip();
+            position = 0;
+            while (header.hasRemaining()) position += channel.write(header, position);
+        }
+    }
+
+    public static void main(String[] args) throws ParseException {
+        CommandLineParser parser = new DefaultParser();
+        CommandLine commandLine = parser.parse(createOptions(), args);
+        Path input = Path.of(commandLine.getOptionValue("input", "sudoku.csv"));
+        Path output = Path.of(commandLine.getOptionValue("output", DEFAULT_FILE));
+        long startTime = System.currentTimeMillis();
+        try {
+            PuzzleStore store = PuzzleStore.open(input);
+            convert(store, output);
+            double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
+            System.out.printf("Converted %d puzzles in %.2f seconds%n", store.size(), totalTime);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Failed to convert " + input + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public static Options createOptions() {
+        Options options = new Options();
+        options.addOption("input", true, "Puzzle file to convert, defaults to sudoku.csv");
+        options.addOption("output", true, "Packed file to write, defaults to " + DEFAULT_FILE);
+        return options;
+    }
+}
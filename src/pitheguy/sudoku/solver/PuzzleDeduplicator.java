@@ -0,0 +1,102 @@
+package pitheguy.sudoku.solver;
+
+import org.apache.commons.cli.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Removes puzzles from a corpus that are the same puzzle under some symmetry, as decided by their
+ * {@link MinlexCanonicalizer minlex form}, so checker runs do not solve equivalent puzzles again.
+ * <p>
+ * The first puzzle of each class is kept, and written with its whole line to the output in file order. The mapping
+ * file has a {@code puzzle,unique} line for every input puzzle, giving the line of the output that stands for it, both
+ * counted from 1. Puzzles are canonicalized in parallel a chunk at a time but assigned in file order, so the same
+ * corpus always gives the same files. Puzzles that repeat a digit in a row or column have no minlex form and are only
+ * merged with exact copies.
+ */
+public class PuzzleDeduplicator {
+    private static final int CHUNK = 1 << 16;
+
+    public static void main(String[] args) throws ParseException {
+        CommandLineParser parser = new DefaultParser();
+        CommandLine commandLine = parser.parse(createOptions(), args);
+        Path input = Path.of(commandLine.getOptionValue("input", "sudoku.csv"));
+        Path output = Path.of(commandLine.getOptionValue("output", "unique.csv"));
+        Path mapping = Path.of(commandLine.getOptionValue("mapping", "mapping.csv"));
+        try {
+            deduplicate(PuzzleStore.open(input), output, mapping);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Failed to deduplicate puzzles: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public static Options createOptions() {
+        Options options = new Options();
+        options.addOption("input", true, "Puzzle file to deduplicate, defaults to sudoku.csv");
+        options.addOption("output", true, "File for the first puzzle of each class, defaults to unique.csv");
+        options.addOption("mapping", true, "File mapping every input puzzle to its output line, defaults to mapping.csv");
+        return options;
+    }
+
+    public static void deduplicate(PuzzleStore store, Path output, Path mapping) throws IOException {
+        long startTime = System.currentTimeMillis();
+        ThreadLocal<MinlexCanonicalizer> threadLocalCanonicalizer = ThreadLocal.withInitial(MinlexCanonicalizer::new);
+        ThreadLocal<int[][]> threadLocalGrids = ThreadLocal.withInitial(() -> new int[2][81]);
+        Map<CanonicalKey, Integer> classes = new HashMap<>();
+        int invalid = 0;
+        try (Writer outputWriter = Files.newBufferedWriter(output, StandardCharsets.US_ASCII);
+             Writer mappingWriter = Files.newBufferedWriter(mapping, StandardCharsets.US_ASCII)) {
+            for (long first = 1; first <= store.size(); first += CHUNK) {
+                long chunkStart = first;
+                int count = (int) Math.min(CHUNK, store.size() - first + 1);
+                CanonicalKey[] keys = IntStream.range(0, count).parallel().mapToObj(i -> {
+                    int[][] grids = threadLocalGrids.get();
+                    try {
+                        store.readDigits(chunkStart + i, grids[0]);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    try {
+                        threadLocalCanonicalizer.get().canonicalize(grids[0], grids[1]);
+                        return CanonicalKey.of(grids[1], true);
+                    } catch (IllegalArgumentException e) {
+                        return CanonicalKey.of(grids[0], false);
+                    }
+                }).toArray(CanonicalKey[]::new);
+                for (int i = 0; i < count; i++) {
+                    if (!keys[i].canonical()) invalid++;
+                    Integer unique = classes.putIfAbsent(keys[i], classes.size() + 1);
+                    if (unique == null) {
+                        unique = classes.size();
+                        outputWriter.write(store.readPuzzle(chunkStart + i) + "\n");
+                    }
+                    mappingWriter.write((chunkStart + i) + "," + unique + "\n");
+                }
+            }
+        }
+        long total = store.size();
+        double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
+        System.out.printf("Kept %d of %d puzzles, removing %d equivalent ones%n", classes.size(), total, total - classes.size());
+        if (invalid > 0) System.out.printf("%d puzzles repeat a digit in a row or column and were only matched exactly%n", invalid);
+        System.out.printf("Deduplicated in %.2f seconds (%.0f puzzles/s)%n", totalTime, total / Math.max(totalTime, 1e-3));
+    }
+
+    /**
+     * A grid packed 18 digits to a long, flagged with whether it is a minlex form. The flag keeps an invalid puzzle from
+     * matching a valid one whose minlex form happens to have the same digits.
+     */
+    private record CanonicalKey(long first, long second, long third, long fourth, long fifth, boolean canonical) {
+        private static CanonicalKey of(int[] grid, boolean canonical) {
+            long[] parts = new long[5];
+            for (int cell = 0; cell < 81; cell++) parts[cell / 18] = parts[cell / 18] * 10 + grid[cell];
+            return new CanonicalKey(parts[0], parts[1], parts[2], parts[3], parts[4], canonical);
+        }
+    }
+}
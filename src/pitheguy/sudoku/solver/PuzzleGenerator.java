@@ -0,0 +1,160 @@
+package pitheguy.sudoku.solver;
+
+import org.apache.commons.cli.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates minimal puzzles with a unique solution whose hardest required strategy falls in a given range. Strategies
+ * are compared by {@link StrategyType#getRating() rating}, the same measure {@link DifficultyRater} uses.
+ * Each instance is single-threaded; {@link #main(String[])} runs one per core.
+ */
+public class PuzzleGenerator {
+    private final StrategyType minDifficulty;
+    private final StrategyType maxDifficulty;
+    private final SplittableRandom random;
+    private final BacktrackingSolver backtrackingSolver = new BacktrackingSolver();
+    private final SudokuSolver solver = new SudokuSolver(new Board());
+    private final int[] solution = new int[81];
+    private final int[] puzzle = new int[81];
+    private final int[] cellOrder = new int[81];
+
+    public PuzzleGenerator(StrategyType minDifficulty, StrategyType maxDifficulty, SplittableRandom random) {
+        this.minDifficulty = minDifficulty;
+        this.maxDifficulty = maxDifficulty;
+        this.random = random;
+        for (int cell = 0; cell < 81; cell++) cellOrder[cell] = cell;
+    }
+
+    /**
+     * Generates and rates one candidate puzzle. Returns it as a puzzle file line if its difficulty is in range.
+     */
+    public Optional<String> tryGenerate() {
+        fillRandomGrid();
+        removeClues();
+        StringBuilder sb = new StringBuilder(PuzzleStore.BYTES_PER_LINE);
+        for (int value : puzzle) sb.append(value);
+        String puzzleString = sb.toString();
+        Board board = solver.getBoard();
+        board.loadPuzzle(puzzleString);
+        if (solver.solve() != SolveResult.SOLVED) return Optional.empty();
+        StrategyType hardest = solver.getHardestStrategy();
+        if (hardest == null || hardest.getRating() < minDifficulty.getRating() || hardest.getRating() > maxDifficulty.getRating())
+            return Optional.empty();
+        sb.append(',');
+        for (int value : solution) sb.append(value);
+        sb.append('\n');
+        return Optional.of(sb.toString());
+    }
+
+    // The three boxes on the main diagonal share no units, so they can be filled independently before searching
+    private void fillRandomGrid() {
+        Arrays.fill(solution, 0);
+        int[] digits = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        for (int box = 0; box < 9; box += 4) {
+            shuffle(digits, digits.length);
+            int[] cells = Topology.UNIT_CELLS[Topology.boxUnit(box)];
+            for (int i = 0; i < 9; i++) solution[cells[i]] = digits[i];
+        }
+        backtrackingSolver.solve(solution);
+    }
+
+    private void removeClues() {
+        System.arraycopy(solution, 0, puzzle, 0, 81);
+        shuffle(cellOrder, cellOrder.length);
+        for (int cell : cellOrder) {
+            int value = puzzle[cell];
+            puzzle[cell] = 0;
+            if (backtrackingSolver.countSolutions(puzzle, 2) != 1) puzzle[cell] = value;
+        }
+    }
+
+    private void shuffle(int[] array, int length) {
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = array[i];
+            array[i] = array[j];
+            array[j] = temp;
+        }
+    }
+
+    public static void main(String[] args) throws ParseException {
+        CommandLineParser parser = new DefaultParser();
+        CommandLine commandLine = parser.parse(createOptions(), args);
+        int count = Integer.parseInt(commandLine.getOptionValue("count", "1000"));
+        File output = new File(commandLine.getOptionValue("output", "generated.csv"));
+        StrategyType[] ratingOrder = StrategyType.inRatingOrder();
+        StrategyType minDifficulty = parseStrategyType(commandLine.getOptionValue("minDifficulty", ratingOrder[0].name()));
+        StrategyType maxDifficulty = parseStrategyType(commandLine.getOptionValue("maxDifficulty", ratingOrder[ratingOrder.length - 1].name()));
+        int threads = Integer.parseInt(commandLine.getOptionValue("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        SplittableRandom random = commandLine.hasOption("seed") ? new SplittableRandom(Long.parseLong(commandLine.getOptionValue("seed"))) : new SplittableRandom();
+        if (minDifficulty.getRating() > maxDifficulty.getRating()) {
+            System.err.println("Minimum difficulty is harder than maximum difficulty");
+            System.exit(1);
+        }
+        generate(count, output, minDifficulty, maxDifficulty, threads, random);
+    }
+
+    private static StrategyType parseStrategyType(String name) {
+        try {
+            return StrategyType.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown strategy: " + name);
+            System.exit(1);
+            return null;
+        }
+    }
+
+    public static Options createOptions() {
+        Options options = new Options();
+        options.addOption("count", true, "Number of puzzles to generate");
+        options.addOption("output", true, "File to write puzzles to");
+        options.addOption("minDifficulty", true, "Easiest strategy a puzzle may require as its hardest step, compared by rating. Defaults to the lowest rated");
+        options.addOption("maxDifficulty", true, "Hardest strategy a puzzle may require, compared by rating. Defaults to the highest rated");
+        options.addOption("threads", true, "Number of worker threads");
+        options.addOption("seed", true, "Random seed");
+        return options;
+    }
+
+    private static void generate(int count, File output, StrategyType minDifficulty, StrategyType maxDifficulty, int threads, SplittableRandom random) {
+        long startTime = System.currentTimeMillis();
+        BlockingQueue<String> results = new ArrayBlockingQueue<>(1024);
+        AtomicInteger accepted = new AtomicInteger(0);
+        AtomicInteger attempts = new AtomicInteger(0);
+        ExecutorService pool = Executors.newWorkStealingPool(threads);
+        for (int i = 0; i < threads; i++) {
+            PuzzleGenerator generator = new PuzzleGenerator(minDifficulty, maxDifficulty, random.split());
+            pool.execute(() -> {
+                while (accepted.get() < count) {
+                    attempts.incrementAndGet();
+                    Optional<String> line = generator.tryGenerate();
+                    if (line.isEmpty() || accepted.getAndIncrement() >= count) continue;
+                    try {
+                        results.put(line.get());
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(output))) {
+            for (int written = 1; written <= count; written++) {
+                out.write(results.take().getBytes(StandardCharsets.US_ASCII));
+                if (written % 1000 == 0) System.out.printf("Progress: %d / %d%n", written, count);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write puzzles: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+        double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
+        System.out.printf("Generated %d puzzles from %d attempts in %.2f seconds%n", count, attempts.get(), totalTime);
+    }
+}
@@ -0,0 +1,181 @@
+package pitheguy.sudoku.solver;
+
+import org.apache.commons.cli.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The start offset of every line in a puzzle file whose lines are not all the same length. Empty lines are skipped.
+ * <p>
+ * Offsets are delta-encoded: the absolute offset of every 64th line is kept as a long, and every line stores the
+ * distance to the next one as an unsigned short, so the index takes a little over 2 bytes per puzzle. The index file
+ * starts with magic, version (ints), the size and modification time of the puzzle file it was built from and the line
+ * count (longs), followed by the block offsets and then the line strides.
+ */
+public class PuzzleIndex {
+    public static final int FILE_MAGIC = 0x53494458;
+    public static final int FILE_VERSION = 1;
+    public static final String FILE_SUFFIX = ".idx";
+    public static final int MAX_LINE_BYTES = Character.MAX_VALUE;
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    private final long sourceSize;
+    private final long sourceModified;
+    private final long[] blockOffsets;
+    private final char[] strides;
+    private final int size;
+
+    private PuzzleIndex(long sourceSize, long sourceModified, long[] blockOffsets, char[] strides, int size) {
+        this.sourceSize = sourceSize;
+        this.sourceModified = sourceModified;
+        this.blockOffsets = blockOffsets;
+        this.strides = strides;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the byte offset of the line with the given 0-based index.
+     */
+    public long getOffset(int line) {
+        long offset = blockOffsets[line >>> BLOCK_SHIFT];
+        for (int i = line & -BLOCK_SIZE; i < line; i++) offset += strides[i];
+        return offset;
+    }
+
+    public boolean matches(Path puzzleFile) throws IOException {
+        return Files.size(puzzleFile) == sourceSize && Files.getLastModifiedTime(puzzleFile).toMillis() == sourceModified;
+    }
+
+    public static Path indexPathFor(Path puzzleFile) {
+        return puzzleFile.resolveSibling(puzzleFile.getFileName() + FILE_SUFFIX);
+    }
+
+    /**
+     * Returns the number of bytes from the start of the given line to the start of the next one, or to the end of the
+     * file for the last line.
+     */
+    public int getStride(int line) {
+        return strides[line];
+    }
+
+    /**
+     * Indexes the puzzle file in one sequential pass.
+     */
+    public static PuzzleIndex build(Path puzzleFile) throws IOException {
+        long sourceModified = Files.getLastModifiedTime(puzzleFile).toMillis();
+        long[] blockOffsets = new long[64];
+        char[] strides = new char[1024];
+        int size = 0;
+        long lineStart = 0;
+        long position = 0;
+        boolean atLineStart = true;
+        try (FileChannel channel = FileChannel.open(puzzleFile, StandardOpenOption.READ)) {
+            long sourceSize = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 23);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                int limit = buffer.limit();
+                for (int i = 0; i < limit; i++, position++) {
+                    byte b = buffer.get(i);
+                    if (b == '\n') atLineStart = true;
+                    if (!atLineStart || b == '\n' || b == '\r') continue;
+                    atLineStart = false;
+                    if (size > 0) strides[size - 1] = stride(position - lineStart, size - 1);
+                    if (size == Integer.MAX_VALUE) throw new IOException("Too many lines to index");
+                    if (size == strides.length) strides = Arrays.copyOf(strides, size * 2);
+                    if ((size & (BLOCK_SIZE - 1)) == 0) {
+                        int block = size >>> BLOCK_SHIFT;
+                        if (block == blockOffsets.length) blockOffsets = Arrays.copyOf(blockOffsets, block * 2);
+                        blockOffsets[block] = position;
+                    }
+                    size++;
+                    lineStart = position;
+                }
+                buffer.clear();
+            }
+            if (size > 0) strides[size - 1] = stride(position - lineStart, size - 1);
+            int blocks = (size + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+            return new PuzzleIndex(sourceSize, sourceModified, Arrays.copyOf(blockOffsets, blocks), Arrays.copyOf(strides, size), size);
+        }
+    }
+
+    private static char stride(long bytes, int line) throws IOException {
+        if (bytes > MAX_LINE_BYTES) throw new IOException("Line " + (line + 1) + " is longer than " + MAX_LINE_BYTES + " bytes");
+        return (char) bytes;
+    }
+
+    public void write(Path indexFile) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile), 1 << 16))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeLong(sourceSize);
+            out.writeLong(sourceModified);
+            out.writeLong(size);
+            for (long offset : blockOffsets) out.writeLong(offset);
+            for (char stride : strides) out.writeChar(stride);
+        }
+    }
+
+    public static PuzzleIndex read(Path indexFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile), 1 << 16))) {
+            if (in.readInt() != FILE_MAGIC) throw new IOException("Not a puzzle index: " + indexFile);
+            int version = in.readInt();
+            if (version != FILE_VERSION) throw new IOException("Unsupported puzzle index version: " + version);
+            long sourceSize = in.readLong();
+            long sourceModified = in.readLong();
+            int size = (int) in.readLong();
+            long[] blockOffsets = new long[(size + BLOCK_SIZE - 1) >>> BLOCK_SHIFT];
+            for (int i = 0; i < blockOffsets.length; i++) blockOffsets[i] = in.readLong();
+            char[] strides = new char[size];
+            for (int i = 0; i < size; i++) strides[i] = in.readChar();
+            return new PuzzleIndex(sourceSize, sourceModified, blockOffsets, strides, size);
+        }
+    }
+
+    /**
+     * Returns the index next to the puzzle file if there is one and it is up to date, or null.
+     */
+    public static PuzzleIndex readIfCurrent(Path puzzleFile) {
+        Path indexFile = indexPathFor(puzzleFile);
+        if (!Files.exists(indexFile)) return null;
+        try {
+            PuzzleIndex index = read(indexFile);
+            return index.matches(puzzleFile) ? index : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws ParseException {
+        CommandLineParser parser = new DefaultParser();
+        CommandLine commandLine = parser.parse(createOptions(), args);
+        Path puzzleFile = Path.of(commandLine.getOptionValue("input", "sudoku.csv"));
+        long startTime = System.currentTimeMillis();
+        try {
+            PuzzleIndex index = build(puzzleFile);
+            index.write(indexPathFor(puzzleFile));
+            double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
+            System.out.printf("Indexed %d puzzles in %.2f seconds%n", index.size(), totalTime);
+        } catch (IOException e) {
+            System.err.println("Failed to index " + puzzleFile + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public static Options createOptions() {
+        Options options = new Options();
+        options.addOption("input", true, "Puzzle file to index, defaults to sudoku.csv");
+        return options;
+    }
+}
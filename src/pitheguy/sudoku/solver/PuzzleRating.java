@@ -0,0 +1,26 @@
+package pitheguy.sudoku.solver;
+
+/**
+ * The difficulty of one puzzle. The max rating is the score of its hardest step and the total is the sum over all
+ * steps. {@code stepCounts} is indexed by {@link StrategyType#ordinal()}.
+ */
+public record PuzzleRating(SolveResult result, double maxRating, double totalRating, StrategyType hardestStep, int[] stepCounts) {
+    public int getStepCount() {
+        int steps = 0;
+        for (int count : stepCounts) steps += count;
+        return steps;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Result: %s%n", result));
+        sb.append(String.format("Max rating: %.1f%s%n", maxRating, hardestStep == null ? "" : " (" + hardestStep + ")"));
+        sb.append(String.format("Total rating: %.1f over %d steps%n", totalRating, getStepCount()));
+        for (StrategyType type : StrategyType.values()) {
+            int count = stepCounts[type.ordinal()];
+            if (count > 0) sb.append(String.format("  %-30s %4.1f x %d%n", type, type.getRating(), count));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,217 @@
+package pitheguy.sudoku.solver;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only access to a puzzle file: either a {@link PackedPuzzleFile} or a text file with one puzzle per line,
+ * starting with its 81 digits. Packed files and text files of fixed-width lines (81 puzzle digits, a comma, 81 solution
+ * digits and a newline) are addressed directly; any other text file goes through a {@link PuzzleIndex}, which is read
+ * from next to the file if it is up to date and built and saved otherwise.
+ * <p>
+ * The file is memory-mapped in overlapping chunks, so it can be larger than 2 GiB without being copied onto the heap,
+ * and any number of threads can read from one store at once. Puzzle numbers start at 1.
+ */
+public class PuzzleStore {
+    public static final int BYTES_PER_LINE = 164;
+    private static final long CHUNK_BYTES = 1L << 30;
+    // Each chunk also maps the start of the next one, so a line starting in a chunk always ends inside it
+    private static final long CHUNK_OVERLAP = PuzzleIndex.MAX_LINE_BYTES;
+    private static final int FIXED_WIDTH_SAMPLES = 64;
+    private static PuzzleStore defaultStore;
+
+    private final MappedByteBuffer[] chunks;
+    private final PuzzleIndex index;
+    private final boolean packed;
+    private final boolean[] verifiedBlocks;
+    private final long checksumTableOffset;
+    private final long size;
+
+    private PuzzleStore(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            chunks = new MappedByteBuffer[(int) ((fileSize + CHUNK_BYTES - 1) / CHUNK_BYTES)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = i * CHUNK_BYTES;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_BYTES + CHUNK_OVERLAP, fileSize - start));
+            }
+            packed = fileSize >= PackedPuzzleFile.HEADER_BYTES && chunks[0].getInt(0) == PackedPuzzleFile.MAGIC;
+            if (packed) {
+                index = null;
+                size = readPackedHeader(path, fileSize);
+                checksumTableOffset = PackedPuzzleFile.checksumTableOffset(size);
+                verifiedBlocks = new boolean[PackedPuzzleFile.blockCount(size)];
+            } else {
+                verifiedBlocks = null;
+                checksumTableOffset = 0;
+                // A current index is authoritative; the fixed-width check only decides whether one must be built
+                PuzzleIndex existing = PuzzleIndex.readIfCurrent(path);
+                if (existing == null && isFixedWidth(fileSize)) {
+                    index = null;
+                    // The last line may be missing its newline
+                    size = (fileSize + 1) / BYTES_PER_LINE;
+                } else {
+                    index = existing != null ? existing : buildIndex(path);
+                    size = index.size();
+                }
+            }
+        }
+    }
+
+    private long readPackedHeader(Path path, long fileSize) throws IOException {
+        MappedByteBuffer header = chunks[0];
+        int version = header.getInt(4);
+        if (version != PackedPuzzleFile.VERSION) throw new IOException("Unsupported packed puzzle file version: " + version);
+        long count = header.getLong(8);
+        long tableOffset = PackedPuzzleFile.checksumTableOffset(count);
+        if (header.getInt(16) != PackedPuzzleFile.PUZZLES_PER_BLOCK || header.getLong(24) != tableOffset
+                || fileSize < tableOffset + PackedPuzzleFile.blockCount(count) * 4L)
+            throw new IOException("Corrupt packed puzzle file header: " + path);
+        return count;
+    }
+
+    // Checks the size and samples lines across the file, as a variable-length file can start with a standard line
+    private boolean isFixedWidth(long fileSize) {
+        if (fileSize == 0) return true;
+        if (fileSize % BYTES_PER_LINE != 0 && (fileSize + 1) % BYTES_PER_LINE != 0) return false;
+        long lines = (fileSize + 1) / BYTES_PER_LINE;
+        for (int sample = 0; sample <= FIXED_WIDTH_SAMPLES; sample++) {
+            long start = (lines - 1) * sample / FIXED_WIDTH_SAMPLES * BYTES_PER_LINE;
+            MappedByteBuffer chunk = chunk(start);
+            int offset = offset(start);
+            if (chunk.get(offset + 81) != ',') return false;
+            if (start + BYTES_PER_LINE <= fileSize && chunk.get(offset + BYTES_PER_LINE - 1) != '\n') return false;
+        }
+        return true;
+    }
+
+    private static PuzzleIndex buildIndex(Path path) throws IOException {
+        PuzzleIndex index = PuzzleIndex.build(path);
+        try {
+            index.write(PuzzleIndex.indexPathFor(path));
+        } catch (IOException e) {
+            System.err.println("Failed to save puzzle index: " + e.getMessage());
+        }
+        return index;
+    }
+
+    public static PuzzleStore open(Path path) throws IOException {
+        return new PuzzleStore(path);
+    }
+
+    /**
+     * Returns the store for the puzzle file in the working directory, opening it on first use. A packed file is used
+     * in preference to sudoku.csv if there is one, unless the CSV has been modified since it was packed.
+     */
+    public static synchronized PuzzleStore getDefault() throws IOException {
+        Path packedFile = Path.of(PackedPuzzleFile.DEFAULT_FILE);
+        Path csvFile = Path.of("sudoku.csv");
+        if (defaultStore == null) defaultStore = open(isPackedCurrent(packedFile, csvFile) ? packedFile : csvFile);
+        return defaultStore;
+    }
+
+    private static boolean isPackedCurrent(Path packedFile, Path sourceFile) throws IOException {
+        if (!Files.exists(packedFile)) return false;
+        return !Files.exists(sourceFile) || Files.getLastModifiedTime(packedFile).compareTo(Files.getLastModifiedTime(sourceFile)) >= 0;
+    }
+
+    public static boolean isDefaultAvailable() {
+        try {
+            getDefault();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public void loadPuzzle(long puzzleNumber, Board board) throws IOException {
+        checkPuzzleNumber(puzzleNumber);
+        long position = position(puzzleNumber);
+        if (packed) {
+            int[] grid = new int[81];
+            readDigits(puzzleNumber, grid);
+            board.loadPuzzle(grid);
+        } else board.loadPuzzle(chunk(position), offset(position));
+    }
+
+    /**
+     * Decodes the puzzle into {@code grid}, with 0 for empty cells.
+     */
+    public void readDigits(long puzzleNumber, int[] grid) throws IOException {
+        checkPuzzleNumber(puzzleNumber);
+        long position = position(puzzleNumber);
+        MappedByteBuffer chunk = chunk(position);
+        int offset = offset(position);
+        if (packed) {
+            verifyBlock(puzzleNumber);
+            PackedPuzzleFile.decode(chunk, offset, grid);
+            return;
+        }
+        for (int cell = 0; cell < 81; cell++) {
+            int digit = chunk.get(offset + cell) - '0';
+            grid[cell] = digit >= 1 && digit <= 9 ? digit : 0;
+        }
+    }
+
+    /**
+     * Returns the whole line of the puzzle, without its newline.
+     */
+    public String readPuzzle(long puzzleNumber) throws IOException {
+        checkPuzzleNumber(puzzleNumber);
+        if (packed) {
+            int[] grid = new int[81];
+            readDigits(puzzleNumber, grid);
+            StringBuilder sb = new StringBuilder(81);
+            for (int value : grid) sb.append(value);
+            return sb.toString();
+        }
+        long position = position(puzzleNumber);
+        MappedByteBuffer chunk = chunk(position);
+        int offset = offset(position);
+        int length = index == null ? BYTES_PER_LINE : index.getStride((int) (puzzleNumber - 1));
+        length = Math.min(length, chunk.limit() - offset);
+        while (length > 0 && (chunk.get(offset + length - 1) == '\n' || chunk.get(offset + length - 1) == '\r')) length--;
+        byte[] bytes = new byte[length];
+        chunk.get(offset, bytes);
+        return new String(bytes);
+    }
+
+    private void checkPuzzleNumber(long puzzleNumber) throws IOException {
+        if (puzzleNumber < 1 || puzzleNumber > size) throw new IOException("Puzzle not found: " + puzzleNumber);
+    }
+
+    // Racing threads may both check a block, which is harmless
+    private void verifyBlock(long puzzleNumber) throws IOException {
+        int block = (int) ((puzzleNumber - 1) / PackedPuzzleFile.PUZZLES_PER_BLOCK);
+        if (verifiedBlocks[block]) return;
+        long first = (long) block * PackedPuzzleFile.PUZZLES_PER_BLOCK;
+        int length = (int) Math.min(PackedPuzzleFile.PUZZLES_PER_BLOCK, size - first) * PackedPuzzleFile.BYTES_PER_PUZZLE;
+        long start = position(first + 1);
+        long checksumPosition = checksumTableOffset + block * 4L;
+        int expected = chunk(checksumPosition).getInt(offset(checksumPosition));
+        if (PackedPuzzleFile.checksum(chunk(start), offset(start), length) != expected)
+            throw new IOException("Checksum mismatch in block " + block);
+        verifiedBlocks[block] = true;
+    }
+
+    private long position(long puzzleNumber) {
+        if (packed) return PackedPuzzleFile.HEADER_BYTES + (puzzleNumber - 1) * PackedPuzzleFile.BYTES_PER_PUZZLE;
+        return index == null ? (puzzleNumber - 1) * BYTES_PER_LINE : index.getOffset((int) (puzzleNumber - 1));
+    }
+
+    private MappedByteBuffer chunk(long position) {
+        return chunks[(int) (position / CHUNK_BYTES)];
+    }
+
+    private static int offset(long position) {
+        return (int) (position % CHUNK_BYTES);
+    }
+}
@@ -0,0 +1,106 @@
+package pitheguy.sudoku.solver;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads puzzles sequentially from a text file, decompressing it if its name ends in .gz, and hands them to consumers
+ * in batches through a bounded queue. Only the first 81 characters of each non-empty line are kept. Once the input is
+ * exhausted, or on failure, an empty batch is queued to tell consumers to stop; consumers should put it back so the
+ * others see it too.
+ */
+public class PuzzleStreamReader implements Runnable {
+    public static final int BATCH_SIZE = 256;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+    private final int limit;
+    private final BlockingQueue<Batch> queue;
+    private volatile IOException failure;
+
+    /**
+     * Creates a reader that stops after {@code limit} puzzles.
+     */
+    public PuzzleStreamReader(Path path, int limit, BlockingQueue<Batch> queue) {
+        this.path = path;
+        this.limit = limit;
+        this.queue = queue;
+    }
+
+    public static boolean isCompressed(Path path) {
+        return path.getFileName().toString().endsWith(".gz");
+    }
+
+    /**
+     * Returns the error that stopped the reader early, or null if it read the whole input.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    @Override
+    public void run() {
+        try (InputStream in = open()) {
+            read(in);
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            queue.put(Batch.END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private InputStream open() throws IOException {
+        InputStream in = Files.newInputStream(path);
+        return isCompressed(path) ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+    }
+
+    private void read(InputStream in) throws IOException, InterruptedException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] puzzles = new byte[BATCH_SIZE * 81];
+        int count = 0;
+        int puzzleNumber = 1;
+        int column = 0;
+        int read;
+        while (puzzleNumber + count <= limit && (read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                byte b = buffer[i];
+                if (b == '\r') continue;
+                if (b != '\n') {
+                    if (column < 81) puzzles[count * 81 + column] = b;
+                    column++;
+                    continue;
+                }
+                if (column == 0) continue;
+                if (column < 81) throw new IOException("Puzzle " + (puzzleNumber + count) + " is shorter than 81 characters");
+                column = 0;
+                if (++count == BATCH_SIZE || puzzleNumber + count > limit) {
+                    queue.put(new Batch(puzzleNumber, count, puzzles));
+                    puzzleNumber += count;
+                    count = 0;
+                    puzzles = new byte[BATCH_SIZE * 81];
+                    if (puzzleNumber > limit) return;
+                }
+            }
+        }
+        // The last line may be missing its newline
+        if (column >= 81 && puzzleNumber + count <= limit) count++;
+        else if (column > 0) throw new IOException("Puzzle " + (puzzleNumber + count) + " is shorter than 81 characters");
+        if (count > 0) queue.put(new Batch(puzzleNumber, count, puzzles));
+    }
+
+    /**
+     * {@code count} puzzles numbered from {@code firstPuzzle}, as 81 ASCII digits each.
+     */
+    public record Batch(int firstPuzzle, int count, byte[] puzzles) {
+        public static final Batch END = new Batch(0, 0, new byte[0]);
+    }
+}
@@ -0,0 +1,33 @@
+package pitheguy.sudoku.solver;
+
+import java.util.Locale;
+
+/**
+ * Difficulty tiers by the rating of a puzzle's hardest step. Puzzles the strategies cannot finish are extreme.
+ * {@link #VERSION} must be bumped whenever the boundaries or the way tier files are built change, so benchmark results
+ * from different tier sets are never compared by mistake.
+ */
+public enum PuzzleTier {
+    EASY(2.8),
+    MEDIUM(4.0),
+    HARD(6.0),
+    EXTREME(Double.POSITIVE_INFINITY);
+
+    public static final int VERSION = 1;
+
+    private final double maxRating;
+
+    PuzzleTier(double maxRating) {
+        this.maxRating = maxRating;
+    }
+
+    public static PuzzleTier of(PuzzleRating rating) {
+        if (rating.result() != SolveResult.SOLVED) return EXTREME;
+        for (PuzzleTier tier : values()) if (rating.maxRating() <= tier.maxRating) return tier;
+        return EXTREME;
+    }
+
+    public String getFileName() {
+        return "tier-" + name().toLowerCase(Locale.ROOT) + "-v" + VERSION + ".csv";
+    }
+}
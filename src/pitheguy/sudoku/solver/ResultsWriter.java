@@ -0,0 +1,127 @@
+package pitheguy.sudoku.solver;
+
+import java.io.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Writes one row per solved puzzle to a binary results file from a background thread. Each recording thread fills its
+ * own block of rows and hands it to the writer once full, so recording never blocks on I/O unless the writer falls
+ * behind by more than a few blocks, and memory use does not grow with the number of puzzles.
+ * <p>
+ * The file is a header of magic and version (ints) followed by blocks, each made of a row count (int) and then the
+ * columns for those rows in order: puzzle number (int), {@link SolveResult} ordinal (byte), solve time in nanoseconds
+ * (long), step count (int) and hardest strategy ordinal or -1 (byte). A block with a row count of 0 ends the file. Rows
+ * are in completion order, not puzzle order.
+ */
+public class ResultsWriter implements AutoCloseable {
+    public static final int FILE_MAGIC = 0x53524553;
+    public static final int FILE_VERSION = 1;
+    private static final int ROWS_PER_BLOCK = 4096;
+    private static final Block END = new Block();
+
+    private final DataOutputStream out;
+    private final BlockingQueue<Block> queue = new ArrayBlockingQueue<>(16);
+    private final List<Block> openBlocks = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Block> currentBlock = ThreadLocal.withInitial(this::openBlock);
+    private final Thread writerThread;
+    private volatile IOException failure;
+
+    public ResultsWriter(File file) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(FILE_VERSION);
+        writerThread = new Thread(this::writeBlocks, "results-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public void record(int puzzleNumber, SolveResult result, long nanos, int steps, StrategyType hardestStrategy) {
+        Block block = currentBlock.get();
+        int row = block.rows++;
+        block.puzzles[row] = puzzleNumber;
+        block.results[row] = (byte) result.ordinal();
+        block.nanos[row] = nanos;
+        block.steps[row] = steps;
+        block.hardest[row] = (byte) (hardestStrategy == null ? -1 : hardestStrategy.ordinal());
+        if (block.rows == ROWS_PER_BLOCK) {
+            openBlocks.remove(block);
+            enqueue(block);
+            currentBlock.set(openBlock());
+        }
+    }
+
+    private Block openBlock() {
+        Block block = new Block();
+        openBlocks.add(block);
+        return block;
+    }
+
+    private void enqueue(Block block) {
+        try {
+            queue.put(block);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Keeps taking blocks until END even after a failure, so close() never waits on a writer that stopped listening
+    private void writeBlocks() {
+        try {
+            while (true) {
+                Block block = queue.take();
+                if (failure == null) {
+                    try {
+                        block.writeTo(out);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                if (block == END) return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+        }
+    }
+
+    /**
+     * Writes the partly filled blocks of every thread and waits for the writer to finish. Must only be called once
+     * recording has stopped.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Block block : openBlocks) if (block.rows > 0) enqueue(block);
+        openBlocks.clear();
+        enqueue(END);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) throw failure;
+    }
+
+    private static class Block {
+        private final int[] puzzles = new int[ROWS_PER_BLOCK];
+        private final byte[] results = new byte[ROWS_PER_BLOCK];
+        private final long[] nanos = new long[ROWS_PER_BLOCK];
+        private final int[] steps = new int[ROWS_PER_BLOCK];
+        private final byte[] hardest = new byte[ROWS_PER_BLOCK];
+        private int rows;
+
+        private void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(rows);
+            for (int i = 0; i < rows; i++) out.writeInt(puzzles[i]);
+            out.write(results, 0, rows);
+            for (int i = 0; i < rows; i++) out.writeLong(nanos[i]);
+            for (int i = 0; i < rows; i++) out.writeInt(steps[i]);
+            out.write(hardest, 0, rows);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package pitheguy.sudoku.solver;
+
+public enum SchedulingMode {
+    /** Try strategies in ascending order of {@link StrategyType#getRating() rating}. Needed whenever the step sequence is graded. */
+    DIFFICULTY,
+    /** Try strategies in the order that is expected to reach the next deduction fastest, based on measured statistics. */
+    ADAPTIVE
+}
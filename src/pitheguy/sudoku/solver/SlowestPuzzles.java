@@ -0,0 +1,66 @@
+package pitheguy.sudoku.solver;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the {@code k} puzzles with the longest solve times seen so far. Times at or below the current k-th slowest are
+ * rejected with a single volatile read, so recording only takes the lock while the list is still changing, which
+ * becomes rare once a few thousand puzzles have been seen.
+ */
+public class SlowestPuzzles {
+    private final int k;
+    private final PriorityQueue<Entry> entries = new PriorityQueue<>(Comparator.comparingLong(Entry::nanos));
+    private volatile long threshold = -1;
+
+    public SlowestPuzzles(int k) {
+        this.k = k;
+    }
+
+    public void record(int puzzleNumber, long nanos) {
+        if (nanos <= threshold) return;
+        synchronized (this) {
+            if (nanos <= threshold) return;
+            entries.add(new Entry(puzzleNumber, nanos));
+            if (entries.size() > k) entries.poll();
+            if (entries.size() == k) threshold = entries.peek().nanos();
+        }
+    }
+
+    public void addAll(SlowestPuzzles other) {
+        for (Entry entry : other.getEntries()) record(entry.puzzleNumber(), entry.nanos());
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        List<Entry> list = getEntries();
+        out.writeInt(list.size());
+        for (Entry entry : list) {
+            out.writeInt(entry.puzzleNumber());
+            out.writeLong(entry.nanos());
+        }
+    }
+
+    /**
+     * Records the entries written by {@link #writeTo}.
+     */
+    public void readFrom(DataInput in) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) record(in.readInt(), in.readLong());
+    }
+
+    /**
+     * Returns the recorded puzzles, slowest first.
+     */
+    public synchronized List<Entry> getEntries() {
+        List<Entry> list = new ArrayList<>(entries);
+        list.sort(Comparator.comparingLong(Entry::nanos).reversed());
+        return list;
+    }
+
+    public record Entry(int puzzleNumber, long nanos) {}
+}
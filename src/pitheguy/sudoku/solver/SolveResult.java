@@ -0,0 +1,9 @@
+package pitheguy.sudoku.solver;
+
+public enum SolveResult {
+    /** The strategies solved the puzzle on their own. */
+    SOLVED,
+    /** The strategies got stuck and the search fallback finished the puzzle. */
+    SOLVED_WITH_SEARCH,
+    UNSOLVED
+}
@@ -1,13 +1,25 @@
 package pitheguy.sudoku.solver;
 
-import pitheguy.sudoku.gui.Sudoku;
-
 public abstract class SolveStrategy {
-    protected final Sudoku sudoku;
+    protected final Board board;
 
-    public SolveStrategy(Sudoku sudoku) {
-        this.sudoku = sudoku;
+    public SolveStrategy(Board board) {
+        this.board = board;
     }
 
     public abstract boolean solve();
+
+    /**
+     * Discards anything cached from an earlier state of the board. Called before every {@link #solve()}.
+     */
+    public void reset() {}
+
+    /**
+     * Returns whether anything this strategy reads has changed since the given {@link Board#getStamp() stamp}. The
+     * solver skips a strategy that found nothing at some stamp until this returns true. The default assumes the whole
+     * board is read; strategies that only depend on some digits or units should narrow it.
+     */
+    public boolean hasInputChangedSince(long stamp) {
+        return board.getStamp() > stamp;
+    }
 }
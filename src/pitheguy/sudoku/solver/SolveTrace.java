@@ -0,0 +1,121 @@
+package pitheguy.sudoku.solver;
+
+import java.io.*;
+
+/**
+ * Records every step a solver makes into a fixed-size ring buffer of ints, overwriting the oldest records once it is
+ * full. Each record starts with a header int with the top bit set:
+ * <ul>
+ *     <li>A start record is followed by the puzzle number and, for each of the 81 cells, its value shifted left by 9
+ *     or'd with its candidate mask, as they were once the solver had set up candidates.</li>
+ *     <li>A step record is followed by one int per change in the same layout as the board's trail: {@link
+ *     Board#VALUE_ENTRY} and the placed value for placements, or the eliminated candidates, or'd with the cell
+ *     shifted left by 9.</li>
+ * </ul>
+ * Only the top bit of the header distinguishes it from the ints after it, so a reader can resynchronize after the
+ * oldest record has been partly overwritten. A trace belongs to one solver and is not thread-safe.
+ */
+public class SolveTrace {
+    public static final int FILE_MAGIC = 0x53545243;
+    public static final int FILE_VERSION = 1;
+    static final int HEADER = 1 << 31;
+    static final int START_RECORD = 1;
+    static final int STEP_RECORD = 2;
+    private static final int DEFAULT_CAPACITY = 1 << 20;
+
+    private final int[] buffer;
+    private final int capacityMask;
+    private final int[] eliminated = new int[81];
+    private long position;
+    private int puzzleNumber;
+
+    public SolveTrace() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a trace that keeps the most recent {@code capacity} ints, rounded up to a power of two.
+     */
+    public SolveTrace(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 128) - 1) << 1;
+        buffer = new int[size];
+        capacityMask = size - 1;
+    }
+
+    /**
+     * Sets the number the next start record is tagged with.
+     */
+    public void setPuzzleNumber(int puzzleNumber) {
+        this.puzzleNumber = puzzleNumber;
+    }
+
+    void recordStart(Board board) {
+        write(header(START_RECORD, 0, 82));
+        write(puzzleNumber);
+        for (int cell = 0; cell < 81; cell++) write(board.getValue(cell) << 9 | board.getCandidateMask(cell) & 0x1FF);
+    }
+
+    /**
+     * Records the changes made to the board since {@code mark} as one step. A null strategy stands for the search
+     * fallback.
+     */
+    void recordStep(StrategyType strategy, Board board, int mark) {
+        int end = board.mark();
+        long headerPosition = position;
+        write(0);
+        for (int i = mark; i < end; i++) {
+            int entry = board.getTrailEntry(i);
+            int cell = entry >>> 9 & 0x7F;
+            if ((entry & Board.VALUE_ENTRY) != 0) write(Board.VALUE_ENTRY | cell << 9 | board.getValue(cell));
+            else eliminated[cell] |= entry & ~board.getCandidateMask(cell) & 0x1FF;
+        }
+        for (int i = mark; i < end; i++) {
+            int cell = board.getTrailEntry(i) >>> 9 & 0x7F;
+            if (eliminated[cell] == 0) continue;
+            write(cell << 9 | eliminated[cell]);
+            eliminated[cell] = 0;
+        }
+        int length = (int) (position - headerPosition - 1);
+        buffer[(int) headerPosition & capacityMask] = header(STEP_RECORD, strategy == null ? 0 : strategy.ordinal() + 1, length);
+    }
+
+    private static int header(int kind, int strategyId, int length) {
+        return HEADER | kind << 24 | strategyId << 16 | length;
+    }
+
+    private void write(int value) {
+        buffer[(int) position++ & capacityMask] = value;
+    }
+
+    /**
+     * Returns the retained ints in the order they were written, starting at the oldest complete record.
+     */
+    public int[] snapshot() {
+        long start = Math.max(0, position - buffer.length);
+        while (start < position && (buffer[(int) start & capacityMask] & HEADER) == 0) start++;
+        int[] result = new int[(int) (position - start)];
+        for (int i = 0; i < result.length; i++) result[i] = buffer[(int) (start + i) & capacityMask];
+        return result;
+    }
+
+    public void writeTo(File file) throws IOException {
+        int[] records = snapshot();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(records.length);
+            for (int record : records) out.writeInt(record);
+        }
+    }
+
+    public static int[] readFrom(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) throw new IOException("Not a solve trace: " + file);
+            int version = in.readInt();
+            if (version != FILE_VERSION) throw new IOException("Unsupported trace version: " + version);
+            int[] records = new int[in.readInt()];
+            for (int i = 0; i < records.length; i++) records[i] = in.readInt();
+            return records;
+        }
+    }
+}
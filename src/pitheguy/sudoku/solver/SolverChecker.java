@@ -1,40 +1,158 @@
 package pitheguy.sudoku.solver;
 
 import org.apache.commons.cli.*;
-import pitheguy.sudoku.gui.Sudoku;
 
 import java.io.*;
 import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public class SolverChecker {
+    private static final int SLOWEST_PUZZLES = 5;
+    private static final int CHECKPOINT_MAGIC = 0x53434B50;
+    private static final int CHECKPOINT_VERSION = 1;
+    private static final int SHARD_MAGIC = 0x53534844;
+    private static final int SHARD_VERSION = 1;
     private static volatile boolean shutdownTriggered = false;
 
     public static void main(String[] args) throws ParseException {
-        if (SudokuSolver.DEBUG) {
-            System.err.println("Solver is still in debug mode.");
-            System.exit(1);
-        }
         CommandLineParser parser = new DefaultParser();
         CommandLine commandLine = parser.parse(createOptions(), args);
+        if (commandLine.hasOption("merge")) {
+            mergeShards(commandLine);
+            return;
+        }
+        SchedulingMode schedulingMode = parseSchedulingMode(commandLine);
+        Optional<File> statisticsFile = Optional.ofNullable(commandLine.getOptionValue("strategyStats")).map(File::new);
+        Optional<File> checkpointFile = Optional.ofNullable(commandLine.getOptionValue("checkpoint")).map(File::new);
+        boolean resume = commandLine.hasOption("resume");
+        if (resume && checkpointFile.isEmpty()) {
+            System.err.println("-resume needs the -checkpoint file to resume from.");
+            System.exit(1);
+        }
+        // The rows written before the checkpoint are not part of it, so a resumed results file would only cover the rest
+        if (resume && commandLine.hasOption("results")) {
+            System.err.println("-results cannot be combined with -resume, as the results file would miss the puzzles checked before the checkpoint.");
+            System.exit(1);
+        }
+        // A resumed run gets its statistics from the checkpoint, which already includes the loaded ones
+        StrategyStatistics statistics = resume ? new StrategyStatistics() : loadStatistics(statisticsFile);
+        SolverSettings settings = new SolverSettings(schedulingMode, statistics, commandLine.hasOption("search"));
+        Optional<Path> input = Optional.ofNullable(commandLine.getOptionValue("input")).map(Path::of);
+        boolean streaming = input.isPresent() && PuzzleStreamReader.isCompressed(input.get());
+        if (streaming && (commandLine.hasOption("singlePuzzle") || commandLine.hasOption("puzzleIndexes"))) {
+            System.err.println("Compressed input can only be read sequentially, so -singlePuzzle and -puzzleIndexes are not supported.");
+            System.exit(1);
+        }
         if (commandLine.hasOption("singlePuzzle")) {
             int puzzleNumber = Integer.parseInt(commandLine.getOptionValue("singlePuzzle"));
-            checkSinglePuzzle(puzzleNumber);
+            Optional<File> traceOutput = Optional.ofNullable(commandLine.getOptionValue("trace")).map(File::new);
+            checkSinglePuzzle(openStore(input), puzzleNumber, settings, traceOutput);
             return;
         }
-        PuzzleInfo puzzleInfo = parsePuzzleInfo(commandLine);
+        Shard shard = commandLine.hasOption("shard") ? parseShard(commandLine.getOptionValue("shard")) : Shard.ALL;
+        PuzzleInfo puzzleInfo = parsePuzzleInfo(commandLine, shard);
         int progressUpdateInterval = Integer.parseInt(commandLine.getOptionValue("progressUpdateInterval", "50000"));
         boolean showAllPuzzles = commandLine.hasOption("all");
         Optional<File> unsolvedOutput = Optional.ofNullable(commandLine.getOptionValue("unsolvedOutput")).map(File::new);
-        run(puzzleInfo, progressUpdateInterval, showAllPuzzles, unsolvedOutput);
+        boolean validate = commandLine.hasOption("validate");
+        Optional<File> resultsOutput = Optional.ofNullable(commandLine.getOptionValue("results")).map(File::new);
+        Optional<File> summaryOutput = Optional.ofNullable(commandLine.getOptionValue("summary")).map(File::new);
+        int checkpointInterval = Integer.parseInt(commandLine.getOptionValue("checkpointInterval", "60"));
+        String source = input.map(Path::toString).orElse("default");
+        Optional<CheckpointOptions> checkpoint = checkpointFile.map(file -> new CheckpointOptions(file, checkpointInterval, resume));
+        Optional<File> shardOutput = Optional.ofNullable(commandLine.getOptionValue("shardOutput")).map(File::new)
+                .or(() -> commandLine.hasOption("shard") ? Optional.of(new File("shard-" + shard.index() + "-of-" + shard.count() + ".bin")) : Optional.empty());
+        RunOptions options = new RunOptions(validate, progressUpdateInterval, showAllPuzzles, unsolvedOutput, resultsOutput,
+                summaryOutput, checkpoint, shard, shardOutput, source);
+        if (streaming) runStreaming(input.get(), puzzleInfo, options, settings);
+        else run(openStore(input), puzzleInfo, options, settings);
+        statisticsFile.ifPresent(file -> saveStatistics(statistics, file));
+    }
+
+    private static PuzzleStore openStore(Optional<Path> input) {
+        try {
+            return input.isPresent() ? PuzzleStore.open(input.get()) : PuzzleStore.getDefault();
+        } catch (IOException e) {
+            System.err.println("Failed to load puzzles file: " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Combines the result files of any number of shards of one run and prints the summary of the whole run. The time
+     * shown is that of the slowest shard, as shards are expected to run at the same time.
+     */
+    private static void mergeShards(CommandLine commandLine) {
+        List<String> files = commandLine.getArgList();
+        if (files.isEmpty()) {
+            System.err.println("No shard result files given to merge.");
+            System.exit(1);
+        }
+        Optional<File> unsolvedOutput = Optional.ofNullable(commandLine.getOptionValue("unsolvedOutput")).map(File::new);
+        Optional<File> summaryOutput = Optional.ofNullable(commandLine.getOptionValue("summary")).map(File::new);
+        RunOptions options = new RunOptions(false, 0, commandLine.hasOption("all"), unsolvedOutput, Optional.empty(),
+                summaryOutput, Optional.empty(), Shard.ALL, Optional.empty(), "");
+        StrategyStatistics statistics = new StrategyStatistics();
+        RunState state = new RunState(options, new SolverSettings(SchedulingMode.DIFFICULTY, statistics, false), 0);
+        state.clockStopped = true;
+        List<ShardHeader> headers = new ArrayList<>();
+        for (String file : files) {
+            try {
+                headers.add(state.readShardResult(new File(file)));
+            } catch (IOException e) {
+                System.err.println("Failed to read shard result " + file + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        ShardHeader first = headers.get(0);
+        Set<Integer> seen = new TreeSet<>();
+        int puzzles = 0;
+        for (ShardHeader header : headers) {
+            if (!header.source().equals(first.source()) || header.shard().count() != first.shard().count()
+                    || !header.scheduling().equals(first.scheduling()) || header.searchFallback() != first.searchFallback()) {
+                System.err.println("Shard result files come from different runs.");
+                System.exit(1);
+            }
+            if (!seen.add(header.shard().index())) {
+                System.err.println("Shard " + header.shard().index() + " is given more than once.");
+                System.exit(1);
+            }
+            puzzles += header.puzzles();
+        }
+        List<Integer> missing = IntStream.rangeClosed(1, first.shard().count()).filter(i -> !seen.contains(i)).boxed().toList();
+        System.out.printf("Merged %d of %d shards%n", headers.size(), first.shard().count());
+        if (!missing.isEmpty()) System.out.println("Missing shards: " + describePuzzles(new ArrayList<>(missing)));
+        if (!state.noSolution.isEmpty()) System.out.println("Skipped puzzles with no solution: " + describePuzzles(state.noSolution));
+        if (!state.multipleSolutions.isEmpty()) System.out.println("Skipped puzzles with multiple solutions: " + describePuzzles(state.multipleSolutions));
+        SchedulingMode schedulingMode = SchedulingMode.valueOf(first.scheduling());
+        summarizeProgress(puzzles, options, state, new SolverSettings(schedulingMode, statistics, first.searchFallback()));
     }
 
-    private static PuzzleInfo parsePuzzleInfo(CommandLine commandLine) {
+    private static Shard parseShard(String value) {
+        String[] parts = value.split("/");
+        try {
+            if (parts.length == 2) {
+                Shard shard = new Shard(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+                if (shard.index() >= 1 && shard.index() <= shard.count()) return shard;
+            }
+        } catch (NumberFormatException ignored) {}
+        System.err.println("Shard must be given as i/n with 1 <= i <= n: " + value);
+        System.exit(1);
+        return null;
+    }
+
+    private static PuzzleInfo parsePuzzleInfo(CommandLine commandLine, Shard shard) {
         if (commandLine.hasOption("puzzleIndexes")) {
             IntStream.Builder builder = IntStream.builder();
             int size = 0;
@@ -43,6 +161,7 @@ public class SolverChecker {
                 while (scanner.hasNextLine()) {
                     String line = scanner.nextLine();
                     int puzzleIndex = Integer.parseInt(line);
+                    if (!shard.contains(puzzleIndex)) continue;
                     builder.add(puzzleIndex);
                     if (puzzleIndex > max) max = puzzleIndex;
                     size++;
@@ -57,104 +176,339 @@ public class SolverChecker {
             return new PuzzleInfo(builder.build(), size, max);
         } else {
             int iterations = Integer.parseInt(commandLine.getOptionValue("iterations", "10000"));
-            return new PuzzleInfo(IntStream.range(1, iterations), iterations, iterations);
+            if (shard == Shard.ALL) return new PuzzleInfo(IntStream.rangeClosed(1, iterations), iterations, iterations);
+            int size = (int) IntStream.rangeClosed(1, iterations).filter(shard::contains).count();
+            return new PuzzleInfo(IntStream.rangeClosed(1, iterations).filter(shard::contains), size, iterations);
+        }
+    }
+
+    private static SchedulingMode parseSchedulingMode(CommandLine commandLine) {
+        String mode = commandLine.getOptionValue("scheduling", "difficulty");
+        try {
+            return SchedulingMode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown scheduling mode: " + mode);
+            System.exit(1);
+            return null;
+        }
+    }
+
+    private static StrategyStatistics loadStatistics(Optional<File> statisticsFile) {
+        StrategyStatistics statistics = new StrategyStatistics();
+        if (statisticsFile.isEmpty() || !statisticsFile.get().exists()) return statistics;
+        try {
+            statistics.load(statisticsFile.get());
+        } catch (IOException e) {
+            System.err.println("Failed to load strategy statistics: " + e.getMessage());
+            System.exit(1);
+        }
+        return statistics;
+    }
+
+    private static void saveStatistics(StrategyStatistics statistics, File file) {
+        try {
+            statistics.save(file);
+        } catch (IOException e) {
+            System.out.println("Failed to write strategy statistics to file");
         }
     }
 
     public static Options createOptions() {
         Options options = new Options();
+        options.addOption("input", true, "Puzzle file to read instead of sudoku.csv. Files ending in .gz are decompressed while streaming");
         options.addOption("singlePuzzle", true, "Check a single puzzle");
         options.addOption("puzzleIndexes", true, "Load puzzle indexes to test from a file");
-        options.addOption("iterations", true, "Number of iterations to run");
+        options.addOption("iterations", true, "Check puzzles 1 to this number, defaults to 10000");
         options.addOption("progressUpdateInterval", true, "Progress update interval");
         options.addOption("all", "Show all unsolved puzzles");
         options.addOption("unsolvedOutput", true, "Output unsolved puzzles to file. Implies -all");
+        options.addOption("scheduling", true, "Strategy scheduling mode: difficulty (default) or adaptive");
+        options.addOption("validate", "Skip puzzles that do not have exactly one solution");
+        options.addOption("search", "Finish puzzles the strategies cannot solve with a backtracking search");
+        options.addOption("trace", true, "Record the steps of a single puzzle solve to this file for TraceReplay");
+        options.addOption("results", true, "Write per-puzzle status, time, step count and hardest strategy to this binary file. Not supported with -resume");
+        options.addOption("summary", true, "Write a JSON summary of the run to this file");
+        options.addOption("strategyStats", true, "Load strategy statistics from this file before the run and save them back after it");
+        options.addOption("checkpoint", true, "Save progress to this file periodically and when interrupted. It is deleted once the run completes");
+        options.addOption("checkpointInterval", true, "Seconds between checkpoints, defaults to 60");
+        options.addOption("resume", "Skip the puzzles already completed in the -checkpoint file and continue its totals");
+        options.addOption("shard", true, "Only check shard i/n of the puzzles, for example 2/8, and write a shard result file");
+        options.addOption("shardOutput", true, "Shard result file to write, defaults to shard-i-of-n.bin");
+        options.addOption("merge", "Merge the shard result files given as arguments and summarize them instead of checking puzzles");
         return options;
     }
 
-    private static void checkSinglePuzzle(int puzzleNumber) {
+    private static void checkSinglePuzzle(PuzzleStore store, int puzzleNumber, SolverSettings settings, Optional<File> traceOutput) {
         long startTime = System.currentTimeMillis();
-        Sudoku sudoku = new Sudoku(false);
-        sudoku.loadPuzzle(puzzleNumber);
-        sudoku.solvePuzzle();
-        boolean success = sudoku.isSolved();
+        SudokuSolver solver = settings.createSolver();
+        SolveTrace trace = null;
+        if (traceOutput.isPresent()) {
+            trace = new SolveTrace();
+            trace.setPuzzleNumber(puzzleNumber);
+            solver.setTrace(trace);
+        }
+        Board board = solver.getBoard();
+        try {
+            store.loadPuzzle(puzzleNumber, board);
+        } catch (IOException e) {
+            System.err.println("Failed to load puzzle " + puzzleNumber + ": " + e.getMessage());
+            System.exit(1);
+        }
+        SolveResult result = solver.solve();
         long timeTaken = System.currentTimeMillis() - startTime;
-        if (success) System.out.println("Successfully solved puzzle " + puzzleNumber + " in " + timeTaken + " ms");
-        else System.out.println("Failed to solve puzzle " + puzzleNumber + " in " + timeTaken + " ms");
+        switch (result) {
+            case SOLVED -> System.out.println("Successfully solved puzzle " + puzzleNumber + " in " + timeTaken + " ms");
+            case SOLVED_WITH_SEARCH -> System.out.println("Solved puzzle " + puzzleNumber + " with search in " + timeTaken + " ms");
+            case UNSOLVED -> System.out.println("Failed to solve puzzle " + puzzleNumber + " in " + timeTaken + " ms");
+        }
+        if (trace != null) {
+            try {
+                trace.writeTo(traceOutput.get());
+            } catch (IOException e) {
+                System.err.println("Failed to write trace: " + e.getMessage());
+            }
+        }
     }
 
-    private static void run(PuzzleInfo puzzleInfo, int progressUpdateInterval, boolean showAllPuzzles, Optional<File> unsolvedOutput) {
-        long startTime = System.currentTimeMillis();
-        List<Integer> unsolved = Collections.synchronizedList(new ArrayList<>());
-        AtomicInteger completed = new AtomicInteger(0);
-        Map<Integer, Long> solveTimes = new ConcurrentHashMap<>();
-        ThreadLocal<Sudoku> threadLocalSudoku = ThreadLocal.withInitial(() -> new Sudoku(false));
-        ByteBuffer buffer = ByteBuffer.allocate(164 * puzzleInfo.max());
-        try (FileChannel fileChannel = new FileInputStream("sudoku.csv").getChannel()) {
-            fileChannel.read(buffer);
-            buffer.flip();
-        } catch (IOException e) {
-            System.err.println("Failed to load puzzles file");
+    private static void run(PuzzleStore store, PuzzleInfo allPuzzles, RunOptions options, SolverSettings settings) {
+        RunState state = new RunState(options, settings, allPuzzles.max());
+        ThreadLocal<SudokuSolver> threadLocalSolver = ThreadLocal.withInitial(settings::createSolver);
+        if (allPuzzles.max() > store.size()) {
+            System.err.println("Puzzle " + allPuzzles.max() + " is out of range, the puzzles file has " + store.size() + " puzzles");
             System.exit(1);
         }
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> summarizeProgress(completed.get(), showAllPuzzles, startTime, unsolved, solveTimes, unsolvedOutput)));
-        puzzleInfo.puzzles().parallel().forEach(i -> {
-            Sudoku sudoku = threadLocalSudoku.get();
-            byte[] bytes = new byte[Sudoku.BYTES_PER_LINE];
-            buffer.get((i - 1) * Sudoku.BYTES_PER_LINE, bytes, 0, Sudoku.BYTES_PER_LINE);
-            sudoku.loadPuzzle(new String(bytes));
-            long start = System.currentTimeMillis();
-            sudoku.solvePuzzle();
-            solveTimes.put(i, System.currentTimeMillis() - start);
-            if (!sudoku.isSolved()) unsolved.add(i);
-            printProgressIfNeeded(puzzleInfo.size(), progressUpdateInterval, completed.incrementAndGet());
+        PuzzleInfo puzzleInfo = options.validate() ? validatePuzzles(allPuzzles, store, state) : allPuzzles;
+        addShutdownHook(options, state, settings);
+        state.startCheckpoints();
+        puzzleInfo.puzzles().filter(i -> !state.isCompleted(i)).parallel().forEach(i -> {
+            SudokuSolver solver = threadLocalSolver.get();
+            try {
+                store.loadPuzzle(i, solver.getBoard());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            state.solve(i, solver);
+            printProgressIfNeeded(puzzleInfo.size(), options.progressUpdateInterval(), state.completed.incrementAndGet());
         });
-        summarizeProgress(puzzleInfo.size(), showAllPuzzles, startTime, unsolved, solveTimes, unsolvedOutput);
+        state.finishCheckpoints();
+        state.writeShardResult(puzzleInfo.size());
+        summarizeProgress(puzzleInfo.size(), options, state, settings);
+    }
+
+    // Saves a checkpoint if the run is interrupted, then prints what was done so far
+    private static void addShutdownHook(RunOptions options, RunState state, SolverSettings settings) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (shutdownTriggered) return;
+            // The workers keep running until the JVM halts, so stop them recording before anything reads the totals
+            state.stopRecording();
+            state.saveCheckpoint();
+            summarizeProgress(state.completed.get(), options, state, settings);
+        }));
+    }
+
+    /**
+     * Like {@link #run}, but for input that can only be read sequentially. A reader thread decompresses and splits the
+     * input while one worker per core solves the puzzles it hands over through a bounded queue.
+     */
+    private static void runStreaming(Path input, PuzzleInfo puzzleInfo, RunOptions options, SolverSettings settings) {
+        RunState state = new RunState(options, settings, puzzleInfo.max());
+        int workerCount = Runtime.getRuntime().availableProcessors();
+        BlockingQueue<PuzzleStreamReader.Batch> queue = new ArrayBlockingQueue<>(workerCount * 4);
+        PuzzleStreamReader reader = new PuzzleStreamReader(input, puzzleInfo.max(), queue);
+        Thread readerThread = new Thread(reader, "puzzle-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+        addShutdownHook(options, state, settings);
+        state.startCheckpoints();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(() -> {
+                SudokuSolver solver = settings.createSolver();
+                BacktrackingSolver validator = options.validate() ? new BacktrackingSolver() : null;
+                int[] grid = new int[81];
+                try {
+                    while (true) {
+                        PuzzleStreamReader.Batch batch = queue.take();
+                        if (batch == PuzzleStreamReader.Batch.END) {
+                            queue.put(batch);
+                            return;
+                        }
+                        ByteBuffer puzzles = ByteBuffer.wrap(batch.puzzles());
+                        for (int j = 0; j < batch.count(); j++) {
+                            int puzzleNumber = batch.firstPuzzle() + j;
+                            if (!options.shard().contains(puzzleNumber) || state.isCompleted(puzzleNumber)) continue;
+                            for (int cell = 0; cell < 81; cell++) {
+                                int digit = puzzles.get(j * 81 + cell) - '0';
+                                grid[cell] = digit >= 1 && digit <= 9 ? digit : 0;
+                            }
+                            if (validator != null && !state.validate(puzzleNumber, validator.countSolutions(grid, 2))) continue;
+                            solver.getBoard().loadPuzzle(grid);
+                            state.solve(puzzleNumber, solver);
+                            printProgressIfNeeded(puzzleInfo.size(), options.progressUpdateInterval(), state.completed.incrementAndGet());
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "solver-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (reader.getFailure() != null) {
+            System.err.println("Failed to read " + input + ": " + reader.getFailure().getMessage());
+            System.exit(1);
+        }
+        if (!state.noSolution.isEmpty()) System.out.println("Skipped puzzles with no solution: " + describePuzzles(state.noSolution));
+        if (!state.multipleSolutions.isEmpty()) System.out.println("Skipped puzzles with multiple solutions: " + describePuzzles(state.multipleSolutions));
+        state.finishCheckpoints();
+        state.writeShardResult(state.completed.get());
+        summarizeProgress(state.completed.get(), options, state, settings);
+    }
+
+    private static PuzzleInfo validatePuzzles(PuzzleInfo puzzleInfo, PuzzleStore store, RunState state) {
+        long startTime = System.currentTimeMillis();
+        ThreadLocal<BacktrackingSolver> threadLocalSolver = ThreadLocal.withInitial(BacktrackingSolver::new);
+        int[] valid = puzzleInfo.puzzles().parallel().filter(i -> {
+            int[] grid = new int[81];
+            try {
+                store.readDigits(i, grid);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return state.validate(i, threadLocalSolver.get().countSolutions(grid, 2));
+        }).sorted().toArray();
+        double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
+        System.out.printf("Validated %d puzzles in %.2f seconds%n", puzzleInfo.size(), totalTime);
+        if (!state.noSolution.isEmpty()) System.out.println("Skipping puzzles with no solution: " + describePuzzles(state.noSolution));
+        if (!state.multipleSolutions.isEmpty()) System.out.println("Skipping puzzles with multiple solutions: " + describePuzzles(state.multipleSolutions));
+        return new PuzzleInfo(Arrays.stream(valid), valid.length, puzzleInfo.max());
+    }
+
+    private static String describePuzzles(List<Integer> puzzles) {
+        Collections.sort(puzzles);
+        String shown = puzzles.stream().limit(10).map(String::valueOf).collect(Collectors.joining(", "));
+        return puzzles.size() > 10 ? shown + ", and " + (puzzles.size() - 10) + " more..." : shown;
     }
 
-    private static void summarizeProgress(int iterations, boolean showAllPuzzles, long startTime, List<Integer> unsolved, Map<Integer, Long> solveTimes, Optional<File> unsolvedOutput) {
+    private static void summarizeProgress(int iterations, RunOptions options, RunState state, SolverSettings settings) {
         if (shutdownTriggered) return;
         shutdownTriggered = true;
-        double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
+        List<Integer> unsolved = state.unsolved;
+        int neededSearch = state.neededSearch.get();
+        double totalTime = state.getElapsedMillis() / 1000.0;
         int solvedPuzzles = iterations - unsolved.size();
         double percent = (double) solvedPuzzles / iterations * 100;
         if (percent > 99.999 && percent < 100) percent = 99.999; // Don't show 100% unless all puzzles are solved
         String percentFormat = percent > 99.99 && percent < 100 ? "%.3f" : "%.2f";
         System.out.printf("Solved %d of %d puzzles (" + percentFormat + "%%) in %.2f seconds%n", solvedPuzzles, iterations, percent, totalTime);
+        if (neededSearch > 0) System.out.println(neededSearch + " of the solved puzzles needed search");
         if (!unsolved.isEmpty()) {
             Collections.sort(unsolved);
-            if (unsolvedOutput.isPresent()) {
-                try (BufferedWriter writer = new BufferedWriter(new FileWriter(unsolvedOutput.get()))) {
+            if (options.unsolvedOutput().isPresent()) {
+                try (BufferedWriter writer = new BufferedWriter(new FileWriter(options.unsolvedOutput().get()))) {
                     for (Integer puzzle : unsolved) writer.write(puzzle + "\n");
-                    System.out.println("Unsolved puzzles written to " + unsolvedOutput.get().getAbsolutePath());
+                    System.out.println("Unsolved puzzles written to " + options.unsolvedOutput().get().getAbsolutePath());
                 } catch (IOException e) {
                     System.out.println("Failed to write unsolved puzzles to file");
                 }
             } else {
                 StringBuilder sb = new StringBuilder();
                 sb.append("Unsolved puzzles: ");
-                int limit = showAllPuzzles ? unsolved.size() : 10;
+                int limit = options.showAllPuzzles() ? unsolved.size() : 10;
                 sb.append(unsolved.stream().limit(limit).map(String::valueOf).collect(Collectors.joining(", ")));
                 if (unsolved.size() > limit) sb.append(", and ").append(unsolved.size() - limit).append(" more...");
                 System.out.println(sb);
             }
         }
-        if (iterations <= 5000000) {
-            String slowest = new HashMap<>(solveTimes).entrySet().stream()
-                    .parallel()
-                    .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
-                    .limit(3L)
-                    .map(e -> getEntryString(e, unsolved))
+        LatencyHistogram latencies = state.latencies;
+        if (latencies.getCount() > 0) {
+            System.out.printf("Solve time: mean %.3f ms, p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms%n",
+                    latencies.getMean() / 1e6, latencies.getValueAtPercentile(50) / 1e6, latencies.getValueAtPercentile(90) / 1e6,
+                    latencies.getValueAtPercentile(99) / 1e6, latencies.getValueAtPercentile(99.9) / 1e6, latencies.getMax() / 1e6);
+            String slowest = state.slowest.getEntries().stream()
+                    .map(entry -> getEntryString(entry, unsolved))
                     .collect(Collectors.joining(", "));
             System.out.println("Slowest puzzles: " + slowest);
         }
+        System.out.println("Strategy statistics:");
+        System.out.print(settings.statistics().toTable());
+        if (state.resultsWriter != null) {
+            try {
+                state.resultsWriter.close();
+                System.out.println("Results written to " + options.resultsOutput().get().getAbsolutePath());
+            } catch (IOException e) {
+                System.out.println("Failed to write results file: " + e.getMessage());
+            }
+        }
+        options.summaryOutput().ifPresent(file -> {
+            try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+                writer.write(toJsonSummary(iterations, totalTime, state, settings));
+            } catch (IOException e) {
+                System.out.println("Failed to write JSON summary to file");
+            }
+        });
     }
 
-    private static String getEntryString(Map.Entry<Integer, Long> entry, List<Integer> unsolved) {
+    private static String toJsonSummary(int iterations, double totalTime, RunState state, SolverSettings settings) {
         StringBuilder sb = new StringBuilder();
-        sb.append(entry.getKey());
-        if (unsolved.contains(entry.getKey())) sb.append("*");
-        sb.append(" (").append(entry.getValue()).append(" ms)");
+        sb.append("{\n");
+        sb.append("  \"puzzles\": ").append(iterations).append(",\n");
+        sb.append("  \"solved\": ").append(iterations - state.unsolved.size()).append(",\n");
+        sb.append("  \"solvedWithSearch\": ").append(state.neededSearch.get()).append(",\n");
+        sb.append("  \"unsolved\": ").append(state.unsolved.size()).append(",\n");
+        sb.append("  \"skippedNoSolution\": ").append(state.noSolution.size()).append(",\n");
+        sb.append("  \"skippedMultipleSolutions\": ").append(state.multipleSolutions.size()).append(",\n");
+        sb.append("  \"totalSeconds\": ").append(totalTime).append(",\n");
+        sb.append("  \"puzzlesPerSecond\": ").append(totalTime == 0 ? 0 : iterations / totalTime).append(",\n");
+        sb.append("  \"totalSolveNanos\": ").append(state.latencies.getSum()).append(",\n");
+        LatencyHistogram latencies = state.latencies;
+        sb.append("  \"latencyNanos\": {\"mean\": ").append(latencies.getMean());
+        sb.append(", \"p50\": ").append(latencies.getValueAtPercentile(50));
+        sb.append(", \"p90\": ").append(latencies.getValueAtPercentile(90));
+        sb.append(", \"p99\": ").append(latencies.getValueAtPercentile(99));
+        sb.append(", \"p999\": ").append(latencies.getValueAtPercentile(99.9));
+        sb.append(", \"max\": ").append(latencies.getMax()).append("},\n");
+        sb.append("  \"slowestPuzzles\": [");
+        sb.append(state.slowest.getEntries().stream()
+                .map(entry -> "{\"puzzle\": " + entry.puzzleNumber() + ", \"nanos\": " + entry.nanos() + "}")
+                .collect(Collectors.joining(", ")));
+        sb.append("],\n");
+        sb.append("  \"scheduling\": \"").append(settings.schedulingMode().name().toLowerCase(Locale.ROOT)).append("\",\n");
+        sb.append("  \"searchFallback\": ").append(settings.searchFallback()).append(",\n");
+        List<Integer> unsolved = new ArrayList<>(state.unsolved);
+        Collections.sort(unsolved);
+        sb.append("  \"unsolvedPuzzles\": [");
+        sb.append(unsolved.stream().map(String::valueOf).collect(Collectors.joining(", ")));
+        sb.append("],\n");
+        sb.append("  \"strategies\": [\n");
+        StrategyStatistics statistics = settings.statistics();
+        StrategyType[] types = StrategyType.values();
+        for (StrategyType type : types) {
+            sb.append("    {\"name\": \"").append(type.name()).append('"');
+            sb.append(", \"calls\": ").append(statistics.getCalls(type));
+            sb.append(", \"hits\": ").append(statistics.getHits(type));
+            sb.append(", \"averageNanos\": ").append(statistics.getCost(type));
+            sb.append(", \"averageYield\": ").append(statistics.getYield(type));
+            sb.append(type.ordinal() == types.length - 1 ? "}\n" : "},\n");
+        }
+        sb.append("  ]\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static String getEntryString(SlowestPuzzles.Entry entry, List<Integer> unsolved) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(entry.puzzleNumber());
+        if (unsolved.contains(entry.puzzleNumber())) sb.append("*");
+        sb.append(String.format(" (%.3f ms)", entry.nanos() / 1e6));
         return sb.toString();
     }
 
@@ -167,4 +521,296 @@ public class SolverChecker {
 
     private record PuzzleInfo(IntStream puzzles, int size, int max) {}
 
+    /**
+     * {@code source} names the puzzle file, so checkpoints are only resumed and shard results only merged for the same
+     * input.
+     */
+    private record RunOptions(boolean validate, int progressUpdateInterval, boolean showAllPuzzles, Optional<File> unsolvedOutput,
+                              Optional<File> resultsOutput, Optional<File> summaryOutput, Optional<CheckpointOptions> checkpoint,
+                              Shard shard, Optional<File> shardOutput, String source) {}
+
+    /**
+     * Shard {@code index} of {@code count}, counting from 1. Puzzles are dealt to shards in blocks of
+     * {@value #BLOCK_SIZE} consecutive numbers, which keeps each shard's reads local while spreading runs of similar
+     * puzzles over all shards.
+     */
+    private record ShardHeader(String source, Shard shard, String scheduling, boolean searchFallback, int puzzles) {}
+
+    private record Shard(int index, int count) {
+        private static final int BLOCK_SIZE = 4096;
+        private static final Shard ALL = new Shard(1, 1);
+
+        boolean contains(int puzzleNumber) {
+            return (puzzleNumber - 1) / BLOCK_SIZE % count == index - 1;
+        }
+    }
+
+    private record CheckpointOptions(File file, int intervalSeconds, boolean resume) {}
+
+    /**
+     * Everything recorded about a run. When checkpointing, each completed puzzle is also marked in a bitmap, and a
+     * checkpoint holds the bitmap together with the totals, unsolved puzzles, solve time histogram and strategy
+     * statistics. Recording a puzzle and taking a checkpoint exclude each other, so a checkpoint never counts a puzzle
+     * that is not marked complete. The only exception is the strategy statistics of puzzles still being solved, which a
+     * resumed run counts again.
+     */
+    private static class RunState {
+        private final long startTime = System.currentTimeMillis();
+        private final List<Integer> unsolved = Collections.synchronizedList(new ArrayList<>());
+        private final List<Integer> noSolution = Collections.synchronizedList(new ArrayList<>());
+        private final List<Integer> multipleSolutions = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger neededSearch = new AtomicInteger(0);
+        private final AtomicInteger completed = new AtomicInteger(0);
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final SlowestPuzzles slowest = new SlowestPuzzles(SLOWEST_PUZZLES);
+        private final ResultsWriter resultsWriter;
+        private final RunOptions options;
+        private final SolverSettings settings;
+        private final CheckpointOptions checkpoint;
+        private final AtomicLongArray completedPuzzles;
+        private final ReadWriteLock recordLock;
+        private ScheduledExecutorService checkpointScheduler;
+        private long previousMillis;
+        private boolean clockStopped;
+        private boolean recordingStopped;
+
+        RunState(RunOptions options, SolverSettings settings, int maxPuzzle) {
+            this.options = options;
+            this.settings = settings;
+            checkpoint = options.checkpoint().orElse(null);
+            completedPuzzles = checkpoint == null ? null : new AtomicLongArray(maxPuzzle / 64 + 1);
+            recordLock = checkpoint == null && options.resultsOutput().isEmpty() ? null : new ReentrantReadWriteLock();
+            if (checkpoint != null && checkpoint.resume()) {
+                try {
+                    restoreCheckpoint();
+                } catch (IOException e) {
+                    System.err.println("Failed to resume from " + checkpoint.file() + ": " + e.getMessage());
+                    System.exit(1);
+                }
+                System.out.printf("Resuming with %d puzzles already completed%n", completed.get());
+            }
+            ResultsWriter writer = null;
+            if (options.resultsOutput().isPresent()) {
+                try {
+                    writer = new ResultsWriter(options.resultsOutput().get());
+                } catch (IOException e) {
+                    System.err.println("Failed to open results file: " + e.getMessage());
+                    System.exit(1);
+                }
+            }
+            resultsWriter = writer;
+        }
+
+        long getElapsedMillis() {
+            return clockStopped ? previousMillis : previousMillis + System.currentTimeMillis() - startTime;
+        }
+
+        /**
+         * Solves the puzzle loaded into the solver's board and records the outcome.
+         */
+        void solve(int puzzleNumber, SudokuSolver solver) {
+            long start = System.nanoTime();
+            SolveResult result = solver.solve();
+            long elapsed = System.nanoTime() - start;
+            if (recordLock != null) recordLock.readLock().lock();
+            try {
+                if (recordingStopped) return;
+                latencies.record(elapsed);
+                slowest.record(puzzleNumber, elapsed);
+                if (result == SolveResult.UNSOLVED) unsolved.add(puzzleNumber);
+                else if (result == SolveResult.SOLVED_WITH_SEARCH) neededSearch.incrementAndGet();
+                if (completedPuzzles != null) completedPuzzles.getAndAccumulate(puzzleNumber >> 6, 1L << puzzleNumber, (a, b) -> a | b);
+                if (resultsWriter != null) resultsWriter.record(puzzleNumber, result, elapsed, solver.getStepCount(), solver.getHardestStrategy());
+            } finally {
+                if (recordLock != null) recordLock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Waits for outcomes being recorded and ignores any later ones, so an interrupted run can be checkpointed and
+         * its results file closed while the workers are still solving.
+         */
+        void stopRecording() {
+            if (recordLock == null) return;
+            recordLock.writeLock().lock();
+            try {
+                recordingStopped = true;
+            } finally {
+                recordLock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Returns whether a resumed checkpoint already covers the puzzle.
+         */
+        boolean isCompleted(int puzzleNumber) {
+            return completedPuzzles != null && (completedPuzzles.get(puzzleNumber >> 6) & 1L << puzzleNumber) != 0;
+        }
+
+        /**
+         * Records puzzles without exactly one solution and returns whether the puzzle should be solved.
+         */
+        boolean validate(int puzzleNumber, int solutions) {
+            if (solutions == 0) noSolution.add(puzzleNumber);
+            else if (solutions > 1) multipleSolutions.add(puzzleNumber);
+            return solutions == 1;
+        }
+
+        void startCheckpoints() {
+            if (checkpoint == null) return;
+            checkpointScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+            int interval = checkpoint.intervalSeconds();
+            checkpointScheduler.scheduleWithFixedDelay(this::saveCheckpoint, interval, interval, TimeUnit.SECONDS);
+        }
+
+        /**
+         * Stops checkpointing and deletes the checkpoint, as there is nothing left to resume.
+         */
+        void finishCheckpoints() {
+            if (checkpoint == null) return;
+            checkpointScheduler.shutdownNow();
+            synchronized (this) {
+                if (!checkpoint.file().delete() && checkpoint.file().exists())
+                    System.out.println("Failed to delete checkpoint " + checkpoint.file());
+            }
+        }
+
+        synchronized void saveCheckpoint() {
+            if (checkpoint == null) return;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            recordLock.writeLock().lock();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(CHECKPOINT_MAGIC);
+                out.writeInt(CHECKPOINT_VERSION);
+                out.writeUTF(options.source());
+                out.writeInt(completedPuzzles.length());
+                for (int i = 0; i < completedPuzzles.length(); i++) out.writeLong(completedPuzzles.get(i));
+                writeTotals(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                recordLock.writeLock().unlock();
+            }
+            // Write next to the checkpoint and rename, so a crash while writing never destroys the previous one
+            Path path = checkpoint.file().toPath();
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            try {
+                Files.write(temporary, bytes.toByteArray());
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.out.println("Failed to write checkpoint: " + e.getMessage());
+            }
+        }
+
+        private void restoreCheckpoint() throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(checkpoint.file())))) {
+                if (in.readInt() != CHECKPOINT_MAGIC) throw new IOException("Not a checkpoint file");
+                int version = in.readInt();
+                if (version != CHECKPOINT_VERSION) throw new IOException("Unsupported checkpoint version: " + version);
+                String source = in.readUTF();
+                int words = in.readInt();
+                if (!source.equals(options.source()) || words != completedPuzzles.length())
+                    throw new IOException("The checkpoint was written for a different puzzle set");
+                int done = 0;
+                for (int i = 0; i < words; i++) {
+                    long word = in.readLong();
+                    completedPuzzles.set(i, word);
+                    done += Long.bitCount(word);
+                }
+                completed.set(done);
+                readTotals(in);
+            }
+        }
+
+        /**
+         * Writes the self-contained result of a shard run, which {@link #mergeShards} combines with the other shards.
+         */
+        void writeShardResult(int puzzles) {
+            if (options.shardOutput().isEmpty()) return;
+            File file = options.shardOutput().get();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                out.writeInt(SHARD_MAGIC);
+                out.writeInt(SHARD_VERSION);
+                out.writeUTF(options.source());
+                out.writeInt(options.shard().index());
+                out.writeInt(options.shard().count());
+                out.writeUTF(settings.schedulingMode().name());
+                out.writeBoolean(settings.searchFallback());
+                out.writeInt(puzzles);
+                writeTotals(out);
+                writePuzzles(out, noSolution);
+                writePuzzles(out, multipleSolutions);
+                System.out.println("Shard result written to " + file.getAbsolutePath());
+            } catch (IOException e) {
+                System.out.println("Failed to write shard result: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Adds the totals of a shard result file to this state and returns its header.
+         */
+        ShardHeader readShardResult(File file) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != SHARD_MAGIC) throw new IOException("Not a shard result file");
+                int version = in.readInt();
+                if (version != SHARD_VERSION) throw new IOException("Unsupported shard result version: " + version);
+                String source = in.readUTF();
+                Shard shard = new Shard(in.readInt(), in.readInt());
+                String scheduling = in.readUTF();
+                boolean searchFallback = in.readBoolean();
+                int puzzles = in.readInt();
+                readTotals(in);
+                readPuzzles(in, noSolution);
+                readPuzzles(in, multipleSolutions);
+                return new ShardHeader(source, shard, scheduling, searchFallback, puzzles);
+            }
+        }
+
+        // The totals shared by checkpoints and shard results
+        private void writeTotals(DataOutputStream out) throws IOException {
+            out.writeLong(getElapsedMillis());
+            out.writeInt(neededSearch.get());
+            writePuzzles(out, unsolved);
+            latencies.writeTo(out);
+            slowest.writeTo(out);
+            settings.statistics().writeTo(out);
+        }
+
+        // Adds totals to this state; the elapsed time becomes the longest seen, as shards run side by side
+        private void readTotals(DataInputStream in) throws IOException {
+            previousMillis = Math.max(previousMillis, in.readLong());
+            neededSearch.addAndGet(in.readInt());
+            readPuzzles(in, unsolved);
+            latencies.readFrom(in);
+            slowest.readFrom(in);
+            settings.statistics().readFrom(in);
+        }
+
+        private static void writePuzzles(DataOutputStream out, List<Integer> puzzles) throws IOException {
+            synchronized (puzzles) {
+                out.writeInt(puzzles.size());
+                for (int puzzle : puzzles) out.writeInt(puzzle);
+            }
+        }
+
+        private static void readPuzzles(DataInputStream in, List<Integer> puzzles) throws IOException {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) puzzles.add(in.readInt());
+        }
+    }
+
+    private record SolverSettings(SchedulingMode schedulingMode, StrategyStatistics statistics, boolean searchFallback) {
+        SudokuSolver createSolver() {
+            SudokuSolver solver = new SudokuSolver(new Board());
+            solver.setStatistics(statistics);
+            solver.setSchedulingMode(schedulingMode);
+            solver.setSearchFallback(searchFallback);
+            return solver;
+        }
+    }
+
 }
@@ -0,0 +1,277 @@
+package pitheguy.sudoku.solver;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.cli.*;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Solves puzzles over HTTP without any GUI classes. Each request runs on its own virtual thread, and the solving is
+ * done by a fixed pool of solver contexts, one per allowed concurrent solve, so solvers are reused and CPU-bound work
+ * never outnumbers the contexts. Requests beyond the in-flight limit are rejected with 503 right away rather than
+ * queued without bound.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *     <li>{@code GET /solve?puzzle=...} or {@code POST /solve} with the puzzle as the body: one JSON result.</li>
+ *     <li>{@code POST /batch} with one puzzle per line: one JSON result per line, streamed back in order as the
+ *     puzzles are solved.</li>
+ *     <li>{@code GET /stats}: request counts and solve time percentiles since startup.</li>
+ *     <li>{@code GET /health}: {@code ok}, even when other requests are being rejected.</li>
+ * </ul>
+ * Puzzles are 81 characters where 1-9 are givens and anything else is an empty cell; anything after that is ignored.
+ */
+public class SolverService {
+    private static final int MAX_PUZZLE_BYTES = 1024;
+
+    private final BlockingQueue<SolverContext> contexts;
+    private final Semaphore admission;
+    private final boolean validate;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder solved = new LongAdder();
+    private final LongAdder unsolved = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private HttpServer server;
+
+    public SolverService(int concurrency, int maxRequests, boolean searchFallback, boolean validate) {
+        this.validate = validate;
+        contexts = new ArrayBlockingQueue<>(concurrency);
+        for (int i = 0; i < concurrency; i++) contexts.add(new SolverContext(searchFallback));
+        admission = new Semaphore(maxRequests);
+    }
+
+    public static void main(String[] args) throws ParseException {
+        CommandLineParser parser = new DefaultParser();
+        CommandLine commandLine = parser.parse(createOptions(), args);
+        String host = commandLine.getOptionValue("host", "127.0.0.1");
+        int port = Integer.parseInt(commandLine.getOptionValue("port", "8080"));
+        int concurrency = Integer.parseInt(commandLine.getOptionValue("concurrency", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int maxRequests = Integer.parseInt(commandLine.getOptionValue("maxRequests", String.valueOf(concurrency * 64)));
+        if (concurrency < 1 || maxRequests < 1) {
+            System.err.println("Concurrency and the request limit must be positive");
+            System.exit(1);
+        }
+        SolverService service = new SolverService(concurrency, maxRequests, commandLine.hasOption("search"), commandLine.hasOption("validate"));
+        try {
+            service.start(new InetSocketAddress(host, port));
+        } catch (IOException e) {
+            System.err.println("Failed to start the service on " + host + ":" + port + ": " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.printf("Listening on http://%s:%d with %d solvers and up to %d requests in flight%n", host, port, concurrency, maxRequests);
+        Runtime.getRuntime().addShutdownHook(new Thread(service::stop));
+    }
+
+    public static Options createOptions() {
+        Options options = new Options();
+        options.addOption("host", true, "Address to listen on, defaults to 127.0.0.1");
+        options.addOption("port", true, "Port to listen on, defaults to 8080");
+        options.addOption("concurrency", true, "Puzzles solved at once, defaults to the number of cores");
+        options.addOption("maxRequests", true, "Requests in flight before new ones are rejected with 503, defaults to 64 per solver");
+        options.addOption("search", "Finish puzzles the strategies cannot solve with a backtracking search");
+        options.addOption("validate", "Reject puzzles that do not have exactly one solution");
+        return options;
+    }
+
+    public void start(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/solve", exchange -> handle(exchange, this::handleSolve));
+        server.createContext("/batch", exchange -> handle(exchange, this::handleBatch));
+        server.createContext("/stats", exchange -> handle(exchange, this::handleStats));
+        // Liveness checks bypass admission, so they still answer while the service is saturated
+        server.createContext("/health", exchange -> {
+            try (exchange) {
+                send(exchange, 200, "text/plain", "ok\n");
+            }
+        });
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) server.stop(1);
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try (exchange) {
+            requests.increment();
+            if (!admission.tryAcquire()) {
+                rejected.increment();
+                sendError(exchange, 503, "Too many requests in flight");
+                return;
+            }
+            try {
+                handler.handle(exchange);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (exchange.getResponseCode() == -1) sendError(exchange, 503, "Service is shutting down");
+            } finally {
+                admission.release();
+            }
+        }
+    }
+
+    private void handleSolve(HttpExchange exchange) throws IOException, InterruptedException {
+        String puzzle;
+        switch (exchange.getRequestMethod()) {
+            case "GET" -> puzzle = queryParameter(exchange.getRequestURI(), "puzzle");
+            case "POST" -> puzzle = new String(exchange.getRequestBody().readNBytes(MAX_PUZZLE_BYTES), StandardCharsets.US_ASCII).strip();
+            default -> {
+                sendError(exchange, 405, "Use GET or POST");
+                return;
+            }
+        }
+        if (puzzle == null) {
+            sendError(exchange, 400, "Missing puzzle");
+            return;
+        }
+        try {
+            send(exchange, 200, "application/json", solve(puzzle, -1) + "\n");
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        }
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException, InterruptedException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            sendError(exchange, 405, "Use POST");
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.US_ASCII));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.US_ASCII));
+        String line;
+        int index = 0;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            try {
+                writer.write(solve(line, index));
+            } catch (IllegalArgumentException e) {
+                writer.write("{\"index\": " + index + ", \"error\": \"" + e.getMessage() + "\"}");
+            }
+            writer.write('\n');
+            index++;
+            // Send what is done whenever the client has not sent anything further yet
+            if (!reader.ready()) writer.flush();
+        }
+        writer.flush();
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"requests\": ").append(requests.sum());
+        sb.append(", \"rejected\": ").append(rejected.sum());
+        sb.append(", \"solved\": ").append(solved.sum());
+        sb.append(", \"unsolved\": ").append(unsolved.sum());
+        sb.append(", \"invalid\": ").append(invalid.sum());
+        sb.append(", \"latencyNanos\": {\"mean\": ").append(latencies.getMean());
+        sb.append(", \"p50\": ").append(latencies.getValueAtPercentile(50));
+        sb.append(", \"p90\": ").append(latencies.getValueAtPercentile(90));
+        sb.append(", \"p99\": ").append(latencies.getValueAtPercentile(99));
+        sb.append(", \"p999\": ").append(latencies.getValueAtPercentile(99.9));
+        sb.append(", \"max\": ").append(latencies.getMax()).append("}}\n");
+        send(exchange, 200, "application/json", sb.toString());
+    }
+
+    /**
+     * Solves one puzzle on a pooled context and returns the result as JSON, with {@code index} included unless it is
+     * negative. Waits for a context if all are busy.
+     */
+    private String solve(String puzzle, int index) throws InterruptedException {
+        if (puzzle.length() < 81) {
+            invalid.increment();
+            throw new IllegalArgumentException("Puzzle must have 81 cells but has " + puzzle.length());
+        }
+        SolverContext context = contexts.take();
+        try {
+            int[] grid = context.grid;
+            for (int cell = 0; cell < 81; cell++) {
+                char c = puzzle.charAt(cell);
+                grid[cell] = c >= '1' && c <= '9' ? c - '0' : 0;
+            }
+            if (validate) {
+                int solutions = context.validator.countSolutions(grid, 2);
+                if (solutions != 1) {
+                    invalid.increment();
+                    throw new IllegalArgumentException(solutions == 0 ? "Puzzle has no solution" : "Puzzle has more than one solution");
+                }
+            }
+            Board board = context.solver.getBoard();
+            long start = System.nanoTime();
+            board.loadPuzzle(grid);
+            SolveResult result = context.solver.solve();
+            long elapsed = System.nanoTime() - start;
+            latencies.record(elapsed);
+            if (result == SolveResult.UNSOLVED) unsolved.increment();
+            else solved.increment();
+            StringBuilder sb = context.json;
+            sb.setLength(0);
+            sb.append('{');
+            if (index >= 0) sb.append("\"index\": ").append(index).append(", ");
+            sb.append("\"result\": \"").append(result.name()).append('"');
+            sb.append(", \"grid\": \"");
+            for (int cell = 0; cell < 81; cell++) sb.append(board.getValue(cell));
+            sb.append('"');
+            sb.append(", \"steps\": ").append(context.solver.getStepCount());
+            StrategyType hardest = context.solver.getHardestStrategy();
+            sb.append(", \"hardestStrategy\": ").append(hardest == null ? "null" : "\"" + hardest.name() + "\"");
+            sb.append(", \"nanos\": ").append(elapsed).append('}');
+            return sb.toString();
+        } finally {
+            contexts.put(context);
+        }
+    }
+
+    private static String queryParameter(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query == null) return null;
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0 && parameter.substring(0, separator).equals(name))
+                return URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, "application/json", "{\"error\": \"" + message + "\"}\n");
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Everything one solve needs, reused from request to request.
+     */
+    private static class SolverContext {
+        private final SudokuSolver solver = new SudokuSolver(new Board());
+        private final BacktrackingSolver validator = new BacktrackingSolver();
+        private final int[] grid = new int[81];
+        private final StringBuilder json = new StringBuilder(256);
+
+        SolverContext(boolean searchFallback) {
+            solver.setSearchFallback(searchFallback);
+        }
+    }
+}
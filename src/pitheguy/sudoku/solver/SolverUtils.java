@@ -1,21 +1,15 @@
 package pitheguy.sudoku.solver;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
-
 import java.util.*;
 import java.util.function.Predicate;
 
 public class SolverUtils {
     public static boolean isConnected(Square square1, Square square2) {
-        return square1.getRow() == square2.getRow() ||
-               square1.getCol() == square2.getCol() ||
-               square1.getBox() == square2.getBox();
+        return Topology.isConnected(square1.getIndex(), square2.getIndex());
     }
 
     public static boolean isConnectedNoBox(Square square1, Square square2) {
-        return square1.getRow() == square2.getRow() ||
-               square1.getCol() == square2.getCol();
+        return Topology.isConnectedNoBox(square1.getIndex(), square2.getIndex());
     }
 
     public static boolean hasDigitSolved(List<Square> squares, int digit) {
@@ -39,9 +33,9 @@ public class SolverUtils {
         return result;
     }
 
-    public static List<Square> getAllBivalueSquares(Sudoku sudoku) {
+    public static List<Square> getAllBivalueSquares(Board board) {
         List<Square> bivalueSquares = new ArrayList<>();
-        sudoku.forEachSquare(square -> {
+        board.forEachSquare(square -> {
             if (!square.isSolved() && square.getCandidates().count() == 2) bivalueSquares.add(square);
         });
         return bivalueSquares;
@@ -0,0 +1,94 @@
+package pitheguy.sudoku.solver;
+
+import java.util.List;
+
+public class Square implements Comparable<Square> {
+    private final Board board;
+    private final int row;
+    private final int col;
+
+    public Square(Board board, int row, int col) {
+        this.board = board;
+        this.row = row;
+        this.col = col;
+    }
+
+    public boolean isGiven() {
+        return board.isGiven(getIndex());
+    }
+
+    public void setGiven(boolean given) {
+        board.setGiven(getIndex(), given);
+    }
+
+    public int getValue() {
+        return board.getValue(getIndex());
+    }
+
+    public void setValue(int value) {
+        board.placeValue(getIndex(), value);
+    }
+
+    public boolean isSolved() {
+        return getValue() != 0;
+    }
+
+    public DigitCandidates getCandidates() {
+        return board.getCandidates(getIndex());
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public int getBox() {
+        return Topology.BOX_OF[getIndex()];
+    }
+
+    public int getIndex() {
+        return row * 9 + col;
+    }
+
+    public List<Square> getSurroundingRow() {
+        return board.getRow(row);
+    }
+
+    public List<Square> getSurroundingColumn() {
+        return board.getColumn(col);
+    }
+
+    public List<Square> getSurroundingBox() {
+        return board.getBox(getBox());
+    }
+
+    public String getLocationString() {
+        char rowChar = (char) ('A' + row);
+        char colChar = (char) ('1' + col);
+        return "" + rowChar + colChar;
+    }
+
+    @Override
+    public String toString() {
+        return getLocationString() + ": " + (isSolved() ? getValue() : getCandidates());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Square square)) return false;
+        return getIndex() == square.getIndex();
+    }
+
+    @Override
+    public int hashCode() {
+        return (row * 73856093) ^ (col * 19349663);
+    }
+
+    @Override
+    public int compareTo(Square o) {
+        return Integer.compare(getIndex(), o.getIndex());
+    }
+}
@@ -0,0 +1,238 @@
+package pitheguy.sudoku.solver;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cost and yield of each strategy, gathered from every solver that shares this instance.
+ */
+public class StrategyStatistics {
+    private static final int MIN_SAMPLES = 100;
+    private static final StrategyType[] TYPES = StrategyType.values();
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = getThreadBean();
+
+    private final LongAdder[] calls = createAdders();
+    private final LongAdder[] hits = createAdders();
+    private final LongAdder[] nanos = createAdders();
+    private final LongAccumulator[] maxNanos = createMaxAccumulators();
+    private final LongAdder[] eliminations = createAdders();
+    private final LongAdder[] placements = createAdders();
+    private final LongAdder[] allocatedBytes = createAdders();
+
+    private static LongAdder[] createAdders() {
+        LongAdder[] adders = new LongAdder[TYPES.length];
+        for (int i = 0; i < adders.length; i++) adders[i] = new LongAdder();
+        return adders;
+    }
+
+    private static LongAccumulator[] createMaxAccumulators() {
+        LongAccumulator[] accumulators = new LongAccumulator[TYPES.length];
+        for (int i = 0; i < accumulators.length; i++) accumulators[i] = new LongAccumulator(Math::max, 0);
+        return accumulators;
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean)) return null;
+        if (!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) return null;
+        return bean;
+    }
+
+    /**
+     * Returns the number of bytes the current thread has allocated so far, or 0 if the JVM cannot tell.
+     */
+    public static long currentThreadAllocatedBytes() {
+        return THREAD_BEAN == null ? 0 : THREAD_BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    public void record(StrategyType type, long elapsedNanos, long eliminated, long placed, long allocated, boolean hit) {
+        int i = type.ordinal();
+        calls[i].increment();
+        nanos[i].add(elapsedNanos);
+        maxNanos[i].accumulate(elapsedNanos);
+        eliminations[i].add(eliminated);
+        placements[i].add(placed);
+        allocatedBytes[i].add(allocated);
+        if (hit) hits[i].increment();
+    }
+
+    public long getCalls(StrategyType type) {
+        return calls[type.ordinal()].sum();
+    }
+
+    public long getHits(StrategyType type) {
+        return hits[type.ordinal()].sum();
+    }
+
+    /**
+     * Returns the average time of one call in nanoseconds.
+     */
+    public double getCost(StrategyType type) {
+        long calls = getCalls(type);
+        return calls == 0 ? 0 : (double) nanos[type.ordinal()].sum() / calls;
+    }
+
+    /**
+     * Returns the average number of candidates eliminated or cells placed per call.
+     */
+    public double getYield(StrategyType type) {
+        long calls = getCalls(type);
+        return calls == 0 ? 0 : (double) (getEliminations(type) + getPlacements(type)) / calls;
+    }
+
+    public long getTotalNanos(StrategyType type) {
+        return nanos[type.ordinal()].sum();
+    }
+
+    public long getMaxNanos(StrategyType type) {
+        return maxNanos[type.ordinal()].get();
+    }
+
+    public long getEliminations(StrategyType type) {
+        return eliminations[type.ordinal()].sum();
+    }
+
+    public long getPlacements(StrategyType type) {
+        return placements[type.ordinal()].sum();
+    }
+
+    public long getAllocatedBytes(StrategyType type) {
+        return allocatedBytes[type.ordinal()].sum();
+    }
+
+    /**
+     * Formats the counters of every strategy that was called as a table, most expensive first.
+     */
+    public String toTable() {
+        long totalNanos = 0;
+        for (StrategyType type : TYPES) totalNanos += getTotalNanos(type);
+        StrategyType[] order = TYPES.clone();
+        Arrays.sort(order, Comparator.comparingLong(this::getTotalNanos).reversed());
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-30s %12s %10s %12s %10s %10s %7s %10s %10s %12s%n",
+                "Strategy", "Calls", "Hits", "Eliminated", "Placed", "Total ms", "Time %", "Avg us", "Max ms", "Alloc MB"));
+        for (StrategyType type : order) {
+            long calls = getCalls(type);
+            if (calls == 0) continue;
+            long nanos = getTotalNanos(type);
+            sb.append(String.format("%-30s %12d %10d %12d %10d %10.1f %7.2f %10.2f %10.2f %12.1f%n",
+                    type, calls, getHits(type), getEliminations(type), getPlacements(type), nanos / 1e6,
+                    totalNanos == 0 ? 0 : nanos * 100.0 / totalNanos, nanos / 1e3 / calls, getMaxNanos(type) / 1e6,
+                    getAllocatedBytes(type) / (1024.0 * 1024.0)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the order that minimizes the expected time until some strategy makes progress, which is ascending cost
+     * per hit. Strategies without enough samples keep their rating order and are tried after all measured ones.
+     */
+    public StrategyType[] getAdaptiveOrder() {
+        double[] keys = new double[TYPES.length];
+        for (StrategyType type : TYPES) {
+            long calls = getCalls(type);
+            if (calls < MIN_SAMPLES) keys[type.ordinal()] = Double.POSITIVE_INFINITY;
+            else keys[type.ordinal()] = getCost(type) * (calls + 2) / (getHits(type) + 1);
+        }
+        StrategyType[] order = StrategyType.inRatingOrder();
+        Arrays.sort(order, Comparator.comparingDouble(type -> keys[type.ordinal()]));
+        return order;
+    }
+
+    /**
+     * Writes every counter in binary, for checkpoints and result files that {@link #readFrom} adds back.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(TYPES.length);
+        for (StrategyType type : TYPES) {
+            int i = type.ordinal();
+            out.writeUTF(type.name());
+            out.writeLong(calls[i].sum());
+            out.writeLong(hits[i].sum());
+            out.writeLong(nanos[i].sum());
+            out.writeLong(maxNanos[i].get());
+            out.writeLong(eliminations[i].sum());
+            out.writeLong(placements[i].sum());
+            out.writeLong(allocatedBytes[i].sum());
+        }
+    }
+
+    /**
+     * Adds counters written by {@link #writeTo} to this instance. Strategies are matched by name, and ones this version
+     * does not know are skipped.
+     */
+    public void readFrom(DataInput in) throws IOException {
+        int count = in.readInt();
+        for (int j = 0; j < count; j++) {
+            String name = in.readUTF();
+            long[] values = new long[7];
+            for (int k = 0; k < values.length; k++) values[k] = in.readLong();
+            StrategyType type;
+            try {
+                type = StrategyType.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            int i = type.ordinal();
+            calls[i].add(values[0]);
+            hits[i].add(values[1]);
+            nanos[i].add(values[2]);
+            maxNanos[i].accumulate(values[3]);
+            eliminations[i].add(values[4]);
+            placements[i].add(values[5]);
+            allocatedBytes[i].add(values[6]);
+        }
+    }
+
+    public void load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new BufferedReader(new FileReader(file))) {
+            properties.load(reader);
+        }
+        long[][] values = new long[7][TYPES.length];
+        try {
+            for (StrategyType type : TYPES) {
+                int i = type.ordinal();
+                values[0][i] = Long.parseLong(properties.getProperty(type + ".calls", "0"));
+                values[1][i] = Long.parseLong(properties.getProperty(type + ".hits", "0"));
+                values[2][i] = Long.parseLong(properties.getProperty(type + ".nanos", "0"));
+                values[3][i] = Long.parseLong(properties.getProperty(type + ".eliminations", "0"));
+                values[4][i] = Long.parseLong(properties.getProperty(type + ".placements", "0"));
+                values[5][i] = Long.parseLong(properties.getProperty(type + ".maxNanos", "0"));
+                values[6][i] = Long.parseLong(properties.getProperty(type + ".allocatedBytes", "0"));
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed strategy statistics: " + e.getMessage());
+        }
+        for (int i = 0; i < TYPES.length; i++) {
+            calls[i].add(values[0][i]);
+            hits[i].add(values[1][i]);
+            nanos[i].add(values[2][i]);
+            eliminations[i].add(values[3][i]);
+            placements[i].add(values[4][i]);
+            maxNanos[i].accumulate(values[5][i]);
+            allocatedBytes[i].add(values[6][i]);
+        }
+    }
+
+    public void save(File file) throws IOException {
+        Properties properties = new Properties();
+        for (StrategyType type : TYPES) {
+            int i = type.ordinal();
+            properties.setProperty(type + ".calls", Long.toString(calls[i].sum()));
+            properties.setProperty(type + ".hits", Long.toString(hits[i].sum()));
+            properties.setProperty(type + ".nanos", Long.toString(nanos[i].sum()));
+            properties.setProperty(type + ".eliminations", Long.toString(eliminations[i].sum()));
+            properties.setProperty(type + ".placements", Long.toString(placements[i].sum()));
+            properties.setProperty(type + ".maxNanos", Long.toString(maxNanos[i].get()));
+            properties.setProperty(type + ".allocatedBytes", Long.toString(allocatedBytes[i].sum()));
+        }
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            properties.store(writer, "Strategy statistics");
+        }
+    }
+}
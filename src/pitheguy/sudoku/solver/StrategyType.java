@@ -0,0 +1,71 @@
+package pitheguy.sudoku.solver;
+
+import pitheguy.sudoku.solver.strategies.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * Every strategy the solver knows about. The declaration order is only used for file formats that store ordinals;
+ * strategies are tried in {@link #inRatingOrder() rating order}.
+ */
+public enum StrategyType {
+    NAKED_SINGLES(2.3, NakedSinglesStrategy::new),
+    HIDDEN_SINGLES(1.5, HiddenSinglesStrategy::new),
+    POINTING_PAIRS_AND_TRIOS(2.6, PointingPairsAndTriosStrategy::new),
+    CLAIMING_PAIRS_AND_TRIOS(2.8, ClaimingPairsAndTriosStrategy::new),
+    NAKED_PAIRS(3.0, NakedPairsStrategy::new),
+    HIDDEN_PAIRS(3.4, HiddenPairsStrategy::new),
+    NAKED_TRIPLETS(3.6, NakedTripletsStrategy::new),
+    HIDDEN_TRIPLETS(4.0, HiddenTripletsStrategy::new),
+    X_WING(3.2, XWingStrategy::new),
+    CHUTE_REMOTE_PAIRS(4.5, ChuteRemotePairsStrategy::new),
+    SIMPLE_COLORING(6.6, SimpleColoringStrategy::new),
+    XY_WING(4.2, XYWingStrategy::new),
+    BUG(5.6, BugStrategy::new),
+    RECTANGLE_ELIMINATION(4.6, RectangleEliminationStrategy::new),
+    SWORDFISH(3.8, SwordfishStrategy::new),
+    XYZ_WING(4.4, XYZWingStrategy::new),
+    X_CYCLES(6.6, XCyclesStrategy::new),
+    XY_CHAINS(6.8, XYChainsStrategy::new),
+    JELLYFISH(5.2, JellyfishStrategy::new),
+    UNIQUE_RECTANGLES(4.5, UniqueRectanglesStrategy::new),
+    HIDDEN_UNIQUE_RECTANGLES(4.6, HiddenUniqueRectanglesStrategy::new),
+    WXYZ_WING(5.5, WXYZWingStrategy::new),
+    ALIGNED_PAIR_EXCLUSION(6.2, AlignedPairExclusionStrategy::new),
+    FINNED_X_WING(3.4, FinnedXWingStrategy::new),
+    FINNED_SWORDFISH(4.0, FinnedSwordfishStrategy::new),
+    ALMOST_LOCKED_SETS(7.0, AlmostLockedSetStrategy::new),
+    ALTERNATING_INFERENCE_CHAINS(7.5, AlternatingInferenceChainsStrategy::new),
+    PATTERN_OVERLAY_METHOD(8.0, PatternOverlayMethodStrategy::new);
+
+    private static final StrategyType[] RATING_ORDER = Arrays.stream(values())
+            .sorted(Comparator.comparingDouble(StrategyType::getRating)).toArray(StrategyType[]::new);
+
+    private final double rating;
+    private final Function<Board, SolveStrategy> factory;
+
+    StrategyType(double rating, Function<Board, SolveStrategy> factory) {
+        this.rating = rating;
+        this.factory = factory;
+    }
+
+    /**
+     * The score of a step made by this strategy, on roughly the same scale as Sudoku Explainer ratings.
+     */
+    public double getRating() {
+        return rating;
+    }
+
+    /**
+     * Returns every strategy from the lowest rating to the highest, ties in declaration order.
+     */
+    public static StrategyType[] inRatingOrder() {
+        return RATING_ORDER.clone();
+    }
+
+    public SolveStrategy create(Board board) {
+        return factory.apply(board);
+    }
+}
@@ -1,91 +1,170 @@
 package pitheguy.sudoku.solver;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
-import pitheguy.sudoku.solver.strategies.*;
-
 import java.util.Arrays;
-import java.util.List;
+import java.util.function.Consumer;
 
 public class SudokuSolver {
-    public static final boolean DEBUG = false;
     private static final boolean RUN_ALL = false;
-    private final Sudoku sudoku;
+    private static final StrategyType[] DIFFICULTY_ORDER = StrategyType.inRatingOrder();
+    private final Board board;
+    private final SolveStrategy[] strategies;
+    private final long[] fruitlessStamps;
+    private Consumer<StrategyType> stepListener = type -> {};
+    private StrategyStatistics statistics;
+    private SchedulingMode schedulingMode = SchedulingMode.DIFFICULTY;
+    private StrategyType[] order = DIFFICULTY_ORDER;
+    private BacktrackingSolver searchFallback;
+    private StrategyType hardestStrategy;
+    private int stepCount;
+    private SolveTrace trace;
+
+    public SudokuSolver(Board board) {
+        this.board = board;
+        StrategyType[] types = StrategyType.values();
+        strategies = new SolveStrategy[types.length];
+        for (int i = 0; i < types.length; i++) strategies[i] = types[i].create(board);
+        fruitlessStamps = new long[types.length];
+        Arrays.fill(fruitlessStamps, -1);
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Sets a listener that is told which strategy made each step. Steps completed by the search fallback report null.
+     */
+    public void setStepListener(Consumer<StrategyType> stepListener) {
+        this.stepListener = stepListener;
+    }
+
+    /**
+     * Returns the statistics this solver records into, or null if none are attached.
+     */
+    public StrategyStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Makes this solver record into, and schedule from, the given statistics. Solvers on different threads may share
+     * the same instance. Without statistics, which is the default, strategies are not timed at all and adaptive
+     * scheduling falls back to difficulty order.
+     */
+    public void setStatistics(StrategyStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public void setSchedulingMode(SchedulingMode schedulingMode) {
+        this.schedulingMode = schedulingMode;
+    }
 
-    public SudokuSolver(Sudoku sudoku) {
-        this.sudoku = sudoku;
+    /**
+     * When enabled, a puzzle the strategies cannot finish is completed by a backtracking search instead of being left
+     * unsolved.
+     */
+    public void setSearchFallback(boolean enabled) {
+        searchFallback = enabled ? new BacktrackingSolver() : null;
     }
 
-    public void solve() {
-        setupCandidates(sudoku);
-        while (!sudoku.isSolved()) {
-            boolean changed = stepSolve();
-            if (!changed || DEBUG) break;
-            sudoku.repaint();
+    /**
+     * Records every step into the given trace, or stops recording if it is null.
+     */
+    public void setTrace(SolveTrace trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * Returns the highest rated strategy that made progress during the last {@link #solve()}, or null if none did.
+     */
+    public StrategyType getHardestStrategy() {
+        return hardestStrategy;
+    }
+
+    /**
+     * Returns the number of steps the last {@link #solve()} made, counting a search fallback as one step.
+     */
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public SolveResult solve() {
+        hardestStrategy = null;
+        stepCount = 0;
+        order = schedulingMode == SchedulingMode.ADAPTIVE && statistics != null ? statistics.getAdaptiveOrder() : DIFFICULTY_ORDER;
+        setupCandidates(board);
+        if (trace != null) trace.recordStart(board);
+        while (!board.isSolved()) {
+            int mark = board.mark();
+            StrategyType step = stepSolve();
+            if (step == null) break;
+            stepCount++;
+            if (trace != null) trace.recordStep(step, board, mark);
+            stepListener.accept(step);
         }
+        if (board.isSolved()) return SolveResult.SOLVED;
+        int mark = board.mark();
+        if (searchFallback != null && solveWithSearch()) {
+            stepCount++;
+            if (trace != null) trace.recordStep(null, board, mark);
+            stepListener.accept(null);
+            return SolveResult.SOLVED_WITH_SEARCH;
+        }
+        return SolveResult.UNSOLVED;
+    }
+
+    private boolean solveWithSearch() {
+        int[] grid = new int[81];
+        for (int cell = 0; cell < 81; cell++) grid[cell] = board.getValue(cell);
+        if (!searchFallback.solve(grid)) return false;
+        for (int cell = 0; cell < 81; cell++)
+            if (board.getValue(cell) == 0) board.getSquare(cell).setValue(grid[cell]);
+        return true;
     }
 
-    private boolean stepSolve() {
-        List<SolveStrategy> strategies = Arrays.asList(
-                new NakedSinglesStrategy(sudoku),
-                new HiddenSinglesStrategy(sudoku),
-                new PointingPairsAndTriosStrategy(sudoku),
-                new ClaimingPairsAndTriosStrategy(sudoku),
-                new NakedPairsStrategy(sudoku),
-                new HiddenPairsStrategy(sudoku),
-                new NakedTripletsStrategy(sudoku),
-                new HiddenTripletsStrategy(sudoku),
-                new XWingStrategy(sudoku),
-                new ChuteRemotePairsStrategy(sudoku),
-                new SimpleColoringStrategy(sudoku),
-                new XYWingStrategy(sudoku),
-                new BugStrategy(sudoku),
-                new RectangleEliminationStrategy(sudoku),
-                new SwordfishStrategy(sudoku),
-                new XYZWingStrategy(sudoku),
-                new XCyclesStrategy(sudoku),
-                new XYChainsStrategy(sudoku),
-                new JellyfishStrategy(sudoku),
-                new UniqueRectanglesStrategy(sudoku),
-                new HiddenUniqueRectanglesStrategy(sudoku),
-                new WXYZWingStrategy(sudoku),
-                new AlignedPairExclusionStrategy(sudoku),
-                new FinnedXWingStrategy(sudoku),
-                new FinnedSwordfishStrategy(sudoku),
-                new AlmostLockedSetStrategy(sudoku),
-                new AlternatingInferenceChainsStrategy(sudoku),
-                new PatternOverlayMethodStrategy(sudoku)
-        );
-
-        boolean anySolved = false;
-
-        for (SolveStrategy strategy : strategies) {
-            if (strategy.solve()) {
-                if (!RUN_ALL) return true;
-                anySolved = true;
+    // Returns the strategy that made progress, or the hardest one if RUN_ALL is set, or null if none did
+    private StrategyType stepSolve() {
+        StrategyType step = null;
+
+        for (StrategyType type : order) {
+            if (runStrategy(type)) {
+                if (hardestStrategy == null || type.getRating() > hardestStrategy.getRating()) hardestStrategy = type;
+                if (!RUN_ALL) return type;
+                if (step == null || type.getRating() > step.getRating()) step = type;
             }
         }
 
-        return anySolved;
+        return step;
     }
 
-    private static void setupCandidates(Sudoku sudoku) {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                Square square = sudoku.getSquare(row, col);
-                if (square.isSolved()) continue;
-                DigitCandidates candidates = square.getCandidates();
-                removeInvalidCandidates(candidates, square.getSurroundingRow());
-                removeInvalidCandidates(candidates, square.getSurroundingColumn());
-                removeInvalidCandidates(candidates, square.getSurroundingBox());
-            }
+    private boolean runStrategy(StrategyType type) {
+        SolveStrategy strategy = strategies[type.ordinal()];
+        if (!strategy.hasInputChangedSince(fruitlessStamps[type.ordinal()])) return false;
+        if (statistics == null) {
+            strategy.reset();
+            boolean changed = strategy.solve();
+            if (!changed) fruitlessStamps[type.ordinal()] = board.getStamp();
+            return changed;
         }
+        long eliminationsBefore = board.getEliminationCount();
+        long placementsBefore = board.getPlacementCount();
+        long allocatedBefore = StrategyStatistics.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        strategy.reset();
+        boolean changed = strategy.solve();
+        long elapsed = System.nanoTime() - start;
+        statistics.record(type, elapsed, board.getEliminationCount() - eliminationsBefore, board.getPlacementCount() - placementsBefore,
+                StrategyStatistics.currentThreadAllocatedBytes() - allocatedBefore, changed);
+        if (!changed) fruitlessStamps[type.ordinal()] = board.getStamp();
+        return changed;
     }
 
-    private static void removeInvalidCandidates(DigitCandidates candidates, List<Square> squares) {
-        for (Square square : squares) {
-            if (!square.isSolved()) continue;
-            candidates.remove(square.getValue());
+    private static void setupCandidates(Board board) {
+        for (int cell = 0; cell < 81; cell++) {
+            if (board.getValue(cell) != 0) continue;
+            for (int peer : Topology.PEERS[cell]) {
+                int value = board.getValue(peer);
+                if (value != 0) board.removeCandidate(cell, value);
+            }
         }
     }
 }
@@ -0,0 +1,94 @@
+package pitheguy.sudoku.solver;
+
+/**
+ * Static lookup tables describing how the 81 cells of a board are grouped into units.
+ * <p>
+ * Units are numbered 0-8 for rows, 9-17 for columns and 18-26 for boxes. A cell's position
+ * within a unit is its column for rows, its row for columns and its row-major index inside
+ * the box for boxes.
+ */
+public final class Topology {
+    public static final int UNIT_COUNT = 27;
+    public static final int ROW_OFFSET = 0;
+    public static final int COLUMN_OFFSET = 9;
+    public static final int BOX_OFFSET = 18;
+
+    public static final int[] ROW_OF = new int[81];
+    public static final int[] COL_OF = new int[81];
+    public static final int[] BOX_OF = new int[81];
+    /** The row, column and box unit of each cell, in that order. */
+    public static final int[][] UNITS_OF = new int[81][3];
+    /** The position of each cell within the units listed in {@link #UNITS_OF}. */
+    public static final int[][] POSITIONS_OF = new int[81][3];
+    /** The cells of each unit, ordered by position. */
+    public static final int[][] UNIT_CELLS = new int[UNIT_COUNT][9];
+    /** The 20 cells sharing a unit with each cell, in ascending order. */
+    public static final int[][] PEERS = new int[81][20];
+    /** The peers of each cell as an 81-bit mask: index {@code cell * 2} holds cells 0-63, {@code cell * 2 + 1} cells 64-80. */
+    public static final long[] PEER_MASKS = new long[81 * 2];
+    /**
+     * The three cells shared by each box and line. Index {@code box * 6 + i} is the intersection with the box's
+     * i-th row for i in 0-2 and with its (i - 3)-th column for i in 3-5.
+     */
+    public static final int[][] INTERSECTIONS = new int[9 * 6][3];
+
+    static {
+        for (int cell = 0; cell < 81; cell++) {
+            int row = cell / 9;
+            int col = cell % 9;
+            int box = (row / 3) * 3 + col / 3;
+            int boxPosition = (row % 3) * 3 + col % 3;
+            ROW_OF[cell] = row;
+            COL_OF[cell] = col;
+            BOX_OF[cell] = box;
+            UNITS_OF[cell] = new int[]{ROW_OFFSET + row, COLUMN_OFFSET + col, BOX_OFFSET + box};
+            POSITIONS_OF[cell] = new int[]{col, row, boxPosition};
+            UNIT_CELLS[ROW_OFFSET + row][col] = cell;
+            UNIT_CELLS[COLUMN_OFFSET + col][row] = cell;
+            UNIT_CELLS[BOX_OFFSET + box][boxPosition] = cell;
+        }
+        for (int cell = 0; cell < 81; cell++) {
+            int count = 0;
+            for (int other = 0; other < 81; other++) {
+                if (other == cell) continue;
+                if (ROW_OF[other] != ROW_OF[cell] && COL_OF[other] != COL_OF[cell] && BOX_OF[other] != BOX_OF[cell]) continue;
+                PEERS[cell][count++] = other;
+                PEER_MASKS[cell * 2 + (other >>> 6)] |= 1L << (other & 63);
+            }
+        }
+        for (int box = 0; box < 9; box++) {
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 3; j++) {
+                    INTERSECTIONS[box * 6 + i][j] = UNIT_CELLS[BOX_OFFSET + box][i * 3 + j];
+                    INTERSECTIONS[box * 6 + 3 + i][j] = UNIT_CELLS[BOX_OFFSET + box][j * 3 + i];
+                }
+            }
+        }
+    }
+
+    private Topology() {}
+
+    public static int rowUnit(int row) {
+        return ROW_OFFSET + row;
+    }
+
+    public static int columnUnit(int col) {
+        return COLUMN_OFFSET + col;
+    }
+
+    public static int boxUnit(int box) {
+        return BOX_OFFSET + box;
+    }
+
+    public static boolean isPeer(int cell1, int cell2) {
+        return (PEER_MASKS[cell1 * 2 + (cell2 >>> 6)] & (1L << (cell2 & 63))) != 0;
+    }
+
+    public static boolean isConnected(int cell1, int cell2) {
+        return cell1 == cell2 || isPeer(cell1, cell2);
+    }
+
+    public static boolean isConnectedNoBox(int cell1, int cell2) {
+        return ROW_OF[cell1] == ROW_OF[cell2] || COL_OF[cell1] == COL_OF[cell2];
+    }
+}
@@ -0,0 +1,174 @@
+package pitheguy.sudoku.solver;
+
+import org.apache.commons.cli.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a trace written by {@link SolveTrace}, rebuilds the board after any step and explains the steps leading up
+ * to it.
+ */
+public class TraceReplay {
+    private final int[] records;
+    private final List<Integer> starts = new ArrayList<>();
+
+    public TraceReplay(int[] records) {
+        this.records = records;
+        for (int i = 0; i < records.length; i += recordLength(records[i]) + 1)
+            if (recordKind(records[i]) == SolveTrace.START_RECORD) starts.add(i);
+    }
+
+    public List<Integer> getPuzzleNumbers() {
+        return starts.stream().map(start -> records[start + 1]).toList();
+    }
+
+    /**
+     * Returns the offsets of the step records of the last traced solve of the given puzzle, or null if it isn't in the
+     * trace.
+     */
+    public List<Integer> getSteps(int puzzleNumber) {
+        for (int i = starts.size() - 1; i >= 0; i--) {
+            int start = starts.get(i);
+            if (records[start + 1] != puzzleNumber) continue;
+            List<Integer> steps = new ArrayList<>();
+            for (int offset = start + recordLength(records[start]) + 1; offset < records.length; offset += recordLength(records[offset]) + 1) {
+                if (recordKind(records[offset]) != SolveTrace.STEP_RECORD) break;
+                steps.add(offset);
+            }
+            return steps;
+        }
+        return null;
+    }
+
+    /**
+     * Rebuilds the board of the given puzzle as it was after the first {@code stepCount} steps.
+     */
+    public Board rebuild(int puzzleNumber, int stepCount) {
+        int start = -1;
+        for (int candidate : starts) if (records[candidate + 1] == puzzleNumber) start = candidate;
+        if (start == -1) throw new IllegalArgumentException("Puzzle " + puzzleNumber + " is not in the trace");
+        Board board = new Board();
+        StringBuilder puzzle = new StringBuilder();
+        for (int cell = 0; cell < 81; cell++) puzzle.append(records[start + 2 + cell] >>> 9);
+        board.loadPuzzle(puzzle.toString());
+        for (int cell = 0; cell < 81; cell++) board.setCandidateMask(cell, (short) (records[start + 2 + cell] & 0x1FF));
+        List<Integer> steps = getSteps(puzzleNumber);
+        for (int step = 0; step < Math.min(stepCount, steps.size()); step++) {
+            int offset = steps.get(step);
+            for (int i = 1; i <= recordLength(records[offset]); i++) {
+                int entry = records[offset + i];
+                int cell = entry >>> 9 & 0x7F;
+                if ((entry & Board.VALUE_ENTRY) != 0) board.setValue(cell, entry & 0xF);
+                else board.setCandidateMask(cell, (short) (board.getCandidateMask(cell) & ~entry & 0x1FF));
+            }
+        }
+        return board;
+    }
+
+    public String explainStep(int offset) {
+        int header = records[offset];
+        int strategyId = header >>> 16 & 0xFF;
+        StringBuilder sb = new StringBuilder(strategyId == 0 ? "SEARCH" : StrategyType.values()[strategyId - 1].name());
+        sb.append(':');
+        // Candidates removed from a cell placed in the same step are implied by the placement
+        long[] placed = new long[2];
+        for (int i = 1; i <= recordLength(header); i++) {
+            int entry = records[offset + i];
+            if ((entry & Board.VALUE_ENTRY) != 0) placed[(entry >>> 9 & 0x7F) >>> 6] |= 1L << (entry >>> 9);
+        }
+        for (int i = 1; i <= recordLength(header); i++) {
+            int entry = records[offset + i];
+            int cell = entry >>> 9 & 0x7F;
+            if ((entry & Board.VALUE_ENTRY) == 0 && (placed[cell >>> 6] & 1L << cell) != 0) continue;
+            sb.append(' ').append(cellName(cell));
+            if ((entry & Board.VALUE_ENTRY) != 0) sb.append('=').append(entry & 0xF);
+            else {
+                sb.append('-');
+                for (int digit = 1; digit <= 9; digit++) if ((entry & 1 << (digit - 1)) != 0) sb.append(digit);
+            }
+        }
+        return sb.toString();
+    }
+
+    public static String renderBoard(Board board) {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < 9; row++) {
+            if (row % 3 == 0) sb.append("+------------------------------+------------------------------+------------------------------+\n");
+            for (int col = 0; col < 9; col++) {
+                if (col % 3 == 0) sb.append('|');
+                int cell = row * 9 + col;
+                StringBuilder contents = new StringBuilder();
+                if (board.getValue(cell) != 0) contents.append('[').append(board.getValue(cell)).append(']');
+                else for (int digit = 1; digit <= 9; digit++)
+                    if ((board.getCandidateMask(cell) & 1 << (digit - 1)) != 0) contents.append(digit);
+                sb.append(String.format(" %-9s", contents));
+            }
+            sb.append("|\n");
+        }
+        sb.append("+------------------------------+------------------------------+------------------------------+\n");
+        return sb.toString();
+    }
+
+    private static String cellName(int cell) {
+        return "r" + (cell / 9 + 1) + "c" + (cell % 9 + 1);
+    }
+
+    private static int recordKind(int header) {
+        return header >>> 24 & 0x7F;
+    }
+
+    private static int recordLength(int header) {
+        return header & 0xFFFF;
+    }
+
+    public static void main(String[] args) throws ParseException {
+        CommandLineParser parser = new DefaultParser();
+        CommandLine commandLine = parser.parse(createOptions(), args);
+        if (!commandLine.hasOption("trace")) {
+            System.err.println("No trace file given");
+            System.exit(1);
+        }
+        TraceReplay replay;
+        try {
+            replay = new TraceReplay(SolveTrace.readFrom(new File(commandLine.getOptionValue("trace"))));
+        } catch (IOException e) {
+            System.err.println("Failed to read trace: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        List<Integer> puzzleNumbers = replay.getPuzzleNumbers();
+        if (puzzleNumbers.isEmpty()) {
+            System.err.println("Trace contains no complete solves");
+            System.exit(1);
+        }
+        if (commandLine.hasOption("list")) {
+            for (int puzzleNumber : puzzleNumbers)
+                System.out.println("Puzzle " + puzzleNumber + ": " + replay.getSteps(puzzleNumber).size() + " steps");
+            return;
+        }
+        int puzzleNumber = commandLine.hasOption("puzzle") ? Integer.parseInt(commandLine.getOptionValue("puzzle")) : puzzleNumbers.getLast();
+        List<Integer> steps = replay.getSteps(puzzleNumber);
+        if (steps == null) {
+            System.err.println("Puzzle " + puzzleNumber + " is not in the trace");
+            System.exit(1);
+        }
+        int stepCount = commandLine.hasOption("step") ? Integer.parseInt(commandLine.getOptionValue("step")) : steps.size();
+        stepCount = Math.min(stepCount, steps.size());
+        for (int step = 0; step < stepCount; step++)
+            System.out.println("Step " + (step + 1) + ": " + replay.explainStep(steps.get(step)));
+        System.out.println("Board after step " + stepCount + ":");
+        System.out.print(renderBoard(replay.rebuild(puzzleNumber, stepCount)));
+    }
+
+    public static Options createOptions() {
+        Options options = new Options();
+        options.addOption("trace", true, "Trace file to replay");
+        options.addOption("list", "List the puzzles in the trace");
+        options.addOption("puzzle", true, "Puzzle to replay, defaults to the last one in the trace");
+        options.addOption("step", true, "Number of steps to replay, defaults to all of them");
+        return options;
+    }
+}
@@ -1,20 +1,21 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
 import pitheguy.sudoku.solver.*;
 import pitheguy.sudoku.util.*;
 
 import java.util.*;
 
 public class AlignedPairExclusionStrategy extends SolveStrategy {
-    public AlignedPairExclusionStrategy(Sudoku sudoku) {
-        super(sudoku);
+    private final long[] fruitlessStamps = new long[81 * 81];
+
+    public AlignedPairExclusionStrategy(Board board) {
+        super(board);
+        Arrays.fill(fruitlessStamps, -1);
     }
 
     @Override
     public boolean solve() {
-        List<Square> allSquares = sudoku.getAllSquares();
+        List<Square> allSquares = board.getAllSquares();
         for (Square square1 : allSquares) {
             if (square1.isSolved()) continue;
             for (Square square2 : allSquares) {
@@ -22,6 +23,8 @@ public class AlignedPairExclusionStrategy extends SolveStrategy {
                 if (square1 == square2) continue;
                 if (!SolverUtils.isConnected(square1, square2)) continue;
                 if (square1.getCandidates().count() == 1 || square2.getCandidates().count() == 1) continue;
+                int pairIndex = square1.getIndex() * 81 + square2.getIndex();
+                if (getSharedUnitStamp(square1, square2) <= fruitlessStamps[pairIndex]) continue;
                 List<Integer> square1Candidates = square1.getCandidates().getAllCandidates();
                 List<Integer> square2Candidates = square2.getCandidates().getAllCandidates();
                 Map<Pair<Integer>, Boolean> validPairs = new HashMap<>();
@@ -35,7 +38,7 @@ public class AlignedPairExclusionStrategy extends SolveStrategy {
                             candidates.remove(digit1);
                             candidates.remove(digit2);
                         }
-                        SquareSet processed = new SquareSet(sudoku);
+                        SquareSet processed = new SquareSet(board);
                         do {
                             for (UniquePair<DigitCandidates, Square> candidateInfo : connectedSquareCandidateInfo) {
                                 DigitCandidates candidates = candidateInfo.first();
@@ -71,12 +74,21 @@ public class AlignedPairExclusionStrategy extends SolveStrategy {
                         if (changed) return true;
                     }
                 }
-
+                fruitlessStamps[pairIndex] = board.getStamp();
             }
         }
         return false;
     }
 
+    // Everything a pair looks at lies in the units the two squares share
+    private long getSharedUnitStamp(Square square1, Square square2) {
+        long stamp = -1;
+        if (square1.getRow() == square2.getRow()) stamp = Math.max(stamp, board.getUnitStamp(Topology.rowUnit(square1.getRow())));
+        if (square1.getCol() == square2.getCol()) stamp = Math.max(stamp, board.getUnitStamp(Topology.columnUnit(square1.getCol())));
+        if (square1.getBox() == square2.getBox()) stamp = Math.max(stamp, board.getUnitStamp(Topology.boxUnit(square1.getBox())));
+        return stamp;
+    }
+
     private static boolean shouldReprocess(List<UniquePair<DigitCandidates, Square>> connectedSquareCandidateInfo, SquareSet processed) {
         for (UniquePair<DigitCandidates, Square> candidateInfo : connectedSquareCandidateInfo) {
             if (processed.contains(candidateInfo.second())) continue;
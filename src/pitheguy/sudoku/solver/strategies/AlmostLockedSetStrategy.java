@@ -1,20 +1,15 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
 import pitheguy.sudoku.solver.*;
 import pitheguy.sudoku.util.Pair;
 import pitheguy.sudoku.util.SquareSet;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Function;
 
 public class AlmostLockedSetStrategy extends SolveStrategy {
-    private static final boolean DEBUG = false;
-
-    public AlmostLockedSetStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public AlmostLockedSetStrategy(Board board) {
+        super(board);
     }
 
     @Override
@@ -47,8 +42,8 @@ public class AlmostLockedSetStrategy extends SolveStrategy {
                     }
                 }
                 restrictedCommons.removeIf(rc -> {
-                   SquareSet set1Contains = new SquareSet(sudoku);
-                   SquareSet set2Contains = new SquareSet(sudoku);
+                   SquareSet set1Contains = new SquareSet(board);
+                   SquareSet set2Contains = new SquareSet(board);
                    for (Square square : set1.squares()) if (square.getCandidates().contains(rc)) set1Contains.add(square);
                    for (Square square : set2.squares()) if (square.getCandidates().contains(rc)) set2Contains.add(square);
                    for (Square square1 : set1Contains) {
@@ -64,18 +59,16 @@ public class AlmostLockedSetStrategy extends SolveStrategy {
                 if (otherCommons.isEmpty()) continue;
                 boolean changed = false;
                 for (int z : otherCommons) {
-                    SquareSet bothSets = new SquareSet(sudoku);
+                    SquareSet bothSets = new SquareSet(board);
                     bothSets.addAll(set1.squares());
                     bothSets.addAll(set2.squares());
-                    SquareSet containsZ = new SquareSet(sudoku);
-                    boolean logged = false;
+                    SquareSet containsZ = new SquareSet(board);
                     for (Square square : bothSets) if (square.getCandidates().contains(z)) containsZ.add(square);
                     squares:
-                    for (Square square : sudoku.getAllSquares()) {
+                    for (Square square : board.getAllSquares()) {
                         if (square.isSolved()) continue;
                         if (bothSets.contains(square)) continue;
                         for (Square s : containsZ) if (!SolverUtils.isConnected(square, s)) continue squares;
-                        if (DEBUG) logged = debugLog(z, square, logged, set1, set2, connectedPairs, restrictedCommons);
                         changed |= square.getCandidates().remove(z);
                     }
                 }
@@ -85,28 +78,17 @@ public class AlmostLockedSetStrategy extends SolveStrategy {
         return false;
     }
 
-    private static boolean debugLog(int z, Square square, boolean logged, AlmostLockedSet set1, AlmostLockedSet set2, List<Pair<Square>> connectedPairs, List<Integer> restrictedCommons) {
-        if (!logged) {
-            logged = true;
-            System.out.println("Removing " + z + " due to " + set1 + " and " + set2);
-            System.out.println("Connected Pairs: " + connectedPairs);
-            System.out.println("Restricted Commons: " + restrictedCommons);
-        }
-        System.out.println("Removing from " + square);
-        return logged;
-    }
-
     private List<AlmostLockedSet> findAlmostLockedSets() {
         List<AlmostLockedSet> almostLockedSets = new ArrayList<>();
-        findALSForGroup(almostLockedSets, sudoku::getRow);
-        findALSForGroup(almostLockedSets, sudoku::getColumn);
-        findALSForGroup(almostLockedSets, sudoku::getBox);
+        findALSForGroup(almostLockedSets, GroupType.ROW);
+        findALSForGroup(almostLockedSets, GroupType.COLUMN);
+        findALSForGroup(almostLockedSets, GroupType.BOX);
         return almostLockedSets;
     }
 
-    private void findALSForGroup(List<AlmostLockedSet> almostLockedSets, Function<Integer, List<Square>> groupGetter) {
+    private void findALSForGroup(List<AlmostLockedSet> almostLockedSets, GroupType groupType) {
         for (int index = 0; index < 9; index++) {
-            List<Square> squares = groupGetter.apply(index);
+            List<Square> squares = new ArrayList<>(board.getGroup(groupType, index));
             squares.removeIf(Square::isSolved);
             squares.removeIf(square -> square.getCandidates().count() == 1);
             for (int size = 2; size <= 5; size++)
@@ -120,7 +102,7 @@ public class AlmostLockedSetStrategy extends SolveStrategy {
         if (candidates.count() > size + 1) return;
         if (current.size() == size) {
             if (candidates.count() == size + 1)
-                result.add(new AlmostLockedSet(new SquareSet(sudoku, current), candidates));
+                result.add(new AlmostLockedSet(new SquareSet(board, current), candidates));
             return;
         }
         for (int i = start; i < squares.size(); i++) {
@@ -1,7 +1,5 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
 import pitheguy.sudoku.solver.*;
 import pitheguy.sudoku.util.*;
 
@@ -11,8 +9,6 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public class AlternatingInferenceChainsStrategy extends SolveStrategy {
-    private static final boolean DEBUG_UNIT_FORCING_CHAINS = false;
-
     private static final List<Pair<Integer>> GROUP_ELIGIBLE_INDEX_PAIRS = Util.getAllPairs(IntStream.range(0, 9).boxed().toList()).stream()
             .filter(pair -> pair.first() / 3 == pair.second() / 3).toList();
     private static final List<List<Integer>> GROUP_ELIGIBLE_INDEX_TRIPLETS = List.of(List.of(0, 1, 2), List.of(3, 4, 5), List.of(6, 7, 8));
@@ -20,8 +16,15 @@ public class AlternatingInferenceChainsStrategy extends SolveStrategy {
     private final LinkCache weakLinkCache = new LinkCache();
     private final Map<Square, List<AlmostLockedSet>> almostLockedSetCache = new HashMap<>();
 
-    public AlternatingInferenceChainsStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public AlternatingInferenceChainsStrategy(Board board) {
+        super(board);
+    }
+
+    @Override
+    public void reset() {
+        strongLinkCache.clear();
+        weakLinkCache.clear();
+        almostLockedSetCache.clear();
     }
 
     @Override
@@ -40,7 +43,7 @@ public class AlternatingInferenceChainsStrategy extends SolveStrategy {
         Set<Cycle> continuousCycles = new LinkedHashSet<>();
         Set<Cycle> discontinuousCycles = new LinkedHashSet<>();
         Set<Cycle> disconnectedCycles = new LinkedHashSet<>();
-        for (Square square : sudoku.getAllSquares()) {
+        for (Square square : board.getAllSquares()) {
             if (square.isSolved()) continue;
             for (int digit : square.getCandidates().getAllCandidates()) {
                 findCycles(new Node(square, digit), new Cycle(true), continuousCycles, discontinuousCycles, disconnectedCycles, true, maxDepth, requireClosed);
@@ -49,18 +52,16 @@ public class AlternatingInferenceChainsStrategy extends SolveStrategy {
         }
         for (Cycle cycle : continuousCycles) {
             if (isCycleInvalid(cycle)) continue;
-            //System.out.println("Cycle found: " + cycle);
             for (int i = 0; i < cycle.size() - 1; i++) {
                 if (cycle.get(i).isSingle() &&
                     cycle.get(i + 1).isSingle() &&
                     cycle.get(i).squares().getFirst() == cycle.get(i + 1).squares().getFirst()) {
                     short flags = DigitCandidates.getFlags(cycle.get(i).digit(), cycle.get(i + 1).digit());
-                    //System.out.println("Removing all but " + cycle.get(i).digit + " and " + cycle.get(i + 1).digit + " from " + cycle.get(i).squares().getFirst());
                     changed |= cycle.get(i).squares().getFirst().getCandidates().setFlags(flags);
                 }
             }
             for (int digit : cycle.getContainedDigits()) {
-                for (Square square : sudoku.getAllSquares()) {
+                for (Square square : board.getAllSquares()) {
                     Node node = new Node(square, digit);
                     if (square.isSolved()) continue;
                     if (cycle.contains(node)) continue;
@@ -75,7 +76,6 @@ public class AlternatingInferenceChainsStrategy extends SolveStrategy {
                         int index1 = cycle.indexOf(nodePair.first());
                         int index2 = cycle.indexOf(nodePair.second());
                         if (index1 % 2 != index2 % 2) {
-                            //System.out.println("Removing " + digit + " from " + square + " because of " + nodePair.first() + " and " + nodePair.second());
                             valid = true;
                             break;
                         }
@@ -86,12 +86,10 @@ public class AlternatingInferenceChainsStrategy extends SolveStrategy {
             }
         }
         for (Cycle cycle : discontinuousCycles) {
-            //System.out.println("Discontinuous cycle: " + cycle);
             if (isCycleInvalid(cycle)) continue;
             if (!cycle.getFirst().isSingle()) continue;
             Square square = cycle.getFirst().squares().getFirst();
             int digit = cycle.getFirst().digit();
-            //System.out.println((cycle.isFirstLinkStrong() ? "Keeping " : "Removing " ) + digit + " on " + square);
             if (cycle.isFirstLinkStrong()) changed |= square.getCandidates().setFlags(DigitCandidates.getFlags(digit));
             else changed |= square.getCandidates().remove(digit);
         }
@@ -112,7 +110,6 @@ public class AlternatingInferenceChainsStrategy extends SolveStrategy {
             if (!cycle.getFirst().isSingle()) continue;
             if (cycle.getFirst().digit() != cycle.getLast().digit()) continue;
             if (cycle.size() % 2 != 0) continue;
-            //System.out.println("Disconnected cycle: " + cycle);
             Square startSquare = cycle.getFirst().squares().getFirst();
             Square endSquare = cycle.getLast().squares().getFirst();
             if (!SolverUtils.isConnected(startSquare, endSquare)) continue;
@@ -126,7 +123,6 @@ public class AlternatingInferenceChainsStrategy extends SolveStrategy {
             for (Square square : affectedSquares) {
                 if (square == startSquare || square == endSquare) continue;
                 if (square.isSolved()) continue;
-                //System.out.println("Removing " + digit + " from " + square);
                 changed |= square.getCandidates().remove(digit);
             }
         }
@@ -149,7 +145,7 @@ public class AlternatingInferenceChainsStrategy extends SolveStrategy {
     private boolean processCellForcingChains(Map<Node, List<Cycle>> cyclesByStart) {
         boolean changed = false;
         squares:
-        for (Square square : sudoku.getAllSquares()) {
+        for (Square square : board.getAllSquares()) {
             if (square.isSolved()) continue;
             if (square.getCandidates().count() < 2) continue;
             List<Integer> candidates = square.getCandidates().getAllCandidates();
@@ -186,16 +182,16 @@ public class AlternatingInferenceChainsStrategy extends SolveStrategy {
 
     private boolean processUnitForcingChains(Map<Node, List<Cycle>> cyclesByStart) {
         boolean changed = false;
-        changed |= processUnitForUnitForcingChains(cyclesByStart, sudoku::getRow, GroupType.ROW);
-        changed |= processUnitForUnitForcingChains(cyclesByStart, sudoku::getColumn, GroupType.COLUMN);
-        changed |= processUnitForUnitForcingChains(cyclesByStart, sudoku::getBox, GroupType.BOX);
+        changed |= processUnitForUnitForcingChains(cyclesByStart, GroupType.ROW);
+        changed |= processUnitForUnitForcingChains(cyclesByStart, GroupType.COLUMN);
+        changed |= processUnitForUnitForcingChains(cyclesByStart, GroupType.BOX);
         return changed;
     }
 
-    private boolean processUnitForUnitForcingChains(Map<Node, List<Cycle>> cyclesByStart, Function<Integer, List<Square>> unitGetter, GroupType groupType) {
+    private boolean processUnitForUnitForcingChains(Map<Node, List<Cycle>> cyclesByStart, GroupType groupType) {
         boolean changed = false;
         for (int i = 0; i < 9; i++) {
-            List<Square> squares = unitGetter.apply(i);
+            List<Square> squares = new ArrayList<>(board.getGroup(groupType, i));
             squares.removeIf(Square::isSolved);
             digits:
             for (int digit = 1; digit <= 9; digit++) {
@@ -226,10 +222,8 @@ public class AlternatingInferenceChainsStrategy extends SolveStrategy {
                     if (!node.isSingle()) continue;
                     if (!conclusions.stream().allMatch(map -> map.containsKey(node))) continue;
                     if (conclusions.stream().allMatch(map -> map.get(node).isOn()) && node.squares().getFirst().getCandidates().contains(node.digit())) {
-                        if (DEBUG_UNIT_FORCING_CHAINS) System.out.println("Found match on " + groupType + " " + i + ", keeping " + node.digit() + " on " + node.squares().getFirst());
                         changed |= node.squares().getFirst().getCandidates().setFlags(DigitCandidates.getFlags(node.digit()));
                     } else if (conclusions.stream().allMatch(map -> map.get(node).isOff())) {
-                        if (DEBUG_UNIT_FORCING_CHAINS) System.out.println("Found match on " + groupType + " " + i + ", removing " + node.digit() + " from " + node.squares().getFirst());
                         changed |= node.squares.getFirst().getCandidates().remove(node.digit());
                     }
                 }
@@ -250,7 +244,7 @@ public class AlternatingInferenceChainsStrategy extends SolveStrategy {
     }
 
     private void computeAlmostLockedSets() {
-        for (Pair<Square> pair : Util.getAllPairs(sudoku.getAllSquares())) {
+        for (Pair<Square> pair : Util.getAllPairs(board.getAllSquares())) {
             if (!SolverUtils.isConnectedNoBox(pair.first(), pair.second())) continue;
             if (pair.first().isSolved() || pair.second().isSolved()) continue;
             if (pair.first().getCandidates().or(pair.second().getCandidates()).count() != 3) continue;
@@ -351,8 +345,7 @@ public class AlternatingInferenceChainsStrategy extends SolveStrategy {
                 else return Optional.empty();
             }
             if (!SolverUtils.allInSameGroup(containedSquares, GroupType.BOX)) return Optional.empty();
-            Function<Square, Integer> indexExtractor = groupType == GroupType.ROW ? Square::getRow : Square::getCol;
-            if (indexExtractor.apply(square).equals(indexExtractor.apply(containedSquares.getFirst())) ||
+            if (groupType.get(square) == groupType.get(containedSquares.getFirst()) ||
                 square.getBox() == containedSquares.getFirst().getBox()) {
                 return Optional.of(new Node(containedSquares, digit));
             }
@@ -692,6 +685,11 @@ public class AlternatingInferenceChainsStrategy extends SolveStrategy {
             } else return nonSingleNodes.computeIfAbsent(node, mappingFunction);
         }
 
+        public void clear() {
+            Arrays.fill(singleNodes, null);
+            nonSingleNodes.clear();
+        }
+
         private static int getIndex(Node node) {
             return node.squares().getFirst().getIndex() * 9 + (node.digit() - 1);
         }
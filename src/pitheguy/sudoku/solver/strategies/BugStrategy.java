@@ -1,21 +1,21 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
+import pitheguy.sudoku.solver.Board;
 import pitheguy.sudoku.solver.SolveStrategy;
 import pitheguy.sudoku.solver.SolverUtils;
+import pitheguy.sudoku.solver.Square;
 
 import java.util.*;
 
 public class BugStrategy extends SolveStrategy {
-    public BugStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public BugStrategy(Board board) {
+        super(board);
     }
 
     @Override
     public boolean solve() {
         boolean changed = false;
-        Optional<Square> bugSquareOptional = SolverUtils.getOnlySquareThat(sudoku.getAllSquares(),
+        Optional<Square> bugSquareOptional = SolverUtils.getOnlySquareThat(board.getAllSquares(),
                 square -> square.getCandidates().count() != 2,
                 true);
         if (bugSquareOptional.isEmpty()) return false;
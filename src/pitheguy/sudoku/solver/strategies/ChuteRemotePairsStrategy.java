@@ -1,7 +1,5 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
 import pitheguy.sudoku.solver.*;
 import pitheguy.sudoku.util.Pair;
 import pitheguy.sudoku.util.Util;
@@ -10,13 +8,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class ChuteRemotePairsStrategy extends SolveStrategy {
-    public ChuteRemotePairsStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public ChuteRemotePairsStrategy(Board board) {
+        super(board);
     }
 
     @Override
     public boolean solve() {
-        List<Square> bivalueSquares = SolverUtils.getAllBivalueSquares(sudoku);
+        List<Square> bivalueSquares = SolverUtils.getAllBivalueSquares(board);
         for (Pair<Square> pair : Util.getAllPairs(bivalueSquares)) {
             Square s1 = pair.first();
             Square s2 = pair.second();
@@ -30,7 +28,6 @@ public class ChuteRemotePairsStrategy extends SolveStrategy {
     }
 
     private boolean process(Square s1, Square s2, boolean isRow) {
-        //System.out.println("Match found: " + s1 + " and " + s2);
         int boxIndex = getIndex(s1, isRow) / 3;
         List<Integer> possibleIndexes = new ArrayList<>(List.of(boxIndex * 3, boxIndex * 3 + 1, boxIndex * 3 + 2));
         possibleIndexes.remove(Integer.valueOf(getIndex(s1, isRow)));
@@ -41,7 +38,7 @@ public class ChuteRemotePairsStrategy extends SolveStrategy {
         int index = possibleIndexes.getFirst();
         int boxPos = possibleBoxPoses.getFirst();
         List<Square> squares = new ArrayList<>();
-        for (int i = 0; i < 3; i++) squares.add(isRow ? sudoku.getSquare(index, boxPos * 3 + i) : sudoku.getSquare(boxPos * 3 + i, index));
+        for (int i = 0; i < 3; i++) squares.add(isRow ? board.getSquare(index, boxPos * 3 + i) : board.getSquare(boxPos * 3 + i, index));
         DigitCandidates totalCandidates = DigitCandidates.EMPTY;
         for (Square square : squares) {
             if (square.isSolved()) continue;
@@ -62,7 +59,7 @@ public class ChuteRemotePairsStrategy extends SolveStrategy {
         }
         if (!valid) return false;
         boolean changed = false;
-        for (Square square : sudoku.getAllSquares()) {
+        for (Square square : board.getAllSquares()) {
             if (square.isSolved()) continue;
             if (SolverUtils.isConnected(square, s1) && SolverUtils.isConnected(square, s2))
                 changed |= square.getCandidates().remove(shared);
@@ -1,52 +1,38 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
+import pitheguy.sudoku.solver.Board;
 import pitheguy.sudoku.solver.SolveStrategy;
-import pitheguy.sudoku.solver.SolverUtils;
-
-import java.util.ArrayList;
-import java.util.List;
+import pitheguy.sudoku.solver.Topology;
 
 public class ClaimingPairsAndTriosStrategy extends SolveStrategy {
-    public ClaimingPairsAndTriosStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public ClaimingPairsAndTriosStrategy(Board board) {
+        super(board);
     }
 
     @Override
     public boolean solve() {
         boolean changed = false;
         for (int i = 0; i < 9; i++) {
-            changed |= solveImpl(sudoku.getRow(i));
-            changed |= solveImpl(sudoku.getColumn(i));
+            changed |= solveImpl(i, true);
+            changed |= solveImpl(i, false);
         }
         return changed;
     }
 
-    private boolean solveImpl(List<Square> squares) {
+    private boolean solveImpl(int index, boolean isRow) {
         boolean changed = false;
+        int line = isRow ? Topology.rowUnit(index) : Topology.columnUnit(index);
         for (int digit = 1; digit <= 9; digit++) {
-            if (SolverUtils.hasDigitSolved(squares, digit)) continue;
-            List<Square> containedSquares = new ArrayList<>();
-            for (Square square : squares) {
-                if (square.isSolved()) continue;
-                if (square.getCandidates().contains(digit)) containedSquares.add(square);
-            }
-            if (containedSquares.isEmpty()) continue;
-            boolean allSameBox = true;
-            Square first = containedSquares.getFirst();
-            int boxNumber = first.getBox();
-            for (int i = 1; i < containedSquares.size(); i++) {
-                Square square = containedSquares.get(i);
-                allSameBox &= square.getBox() == boxNumber;
-            }
-            if (allSameBox) {
-                for (Square square : sudoku.getBox(boxNumber)) {
-                    if (containedSquares.contains(square)) continue;
-                    if (square.isSolved()) continue;
-                    changed |= square.getCandidates().remove(digit);
-                }
-            }
+            if (board.hasDigitSolved(line, digit)) continue;
+            int positions = board.getUnitPositions(line, digit);
+            if (positions == 0) continue;
+            int segment = Integer.numberOfTrailingZeros(positions) / 3;
+            if ((positions & ~(0b111 << (segment * 3))) != 0) continue;
+            int box = isRow ? (index / 3) * 3 + segment : segment * 3 + index / 3;
+            int boxUnit = Topology.boxUnit(box);
+            int lineInBox = isRow ? 0b000_000_111 << ((index % 3) * 3) : 0b001_001_001 << (index % 3);
+            for (int affected = board.getUnitPositions(boxUnit, digit) & ~lineInBox; affected != 0; affected &= affected - 1)
+                changed |= board.removeCandidate(Topology.UNIT_CELLS[boxUnit][Integer.numberOfTrailingZeros(affected)], digit);
         }
         return changed;
     }
@@ -1,75 +1,73 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
-import pitheguy.sudoku.solver.SolveStrategy;
+import pitheguy.sudoku.solver.Board;
+import pitheguy.sudoku.solver.ByDigitSolveStrategy;
 import pitheguy.sudoku.solver.SolverUtils;
+import pitheguy.sudoku.solver.Square;
 
 import java.util.*;
 
-public class FinnedSwordfishStrategy extends SolveStrategy {
-    public FinnedSwordfishStrategy(Sudoku sudoku) {
-        super(sudoku);
+public class FinnedSwordfishStrategy extends ByDigitSolveStrategy {
+    public FinnedSwordfishStrategy(Board board) {
+        super(board);
     }
 
     @Override
-    public boolean solve() {
+    protected boolean solveDigit(int digit) {
         boolean changed = false;
-        changed |= solveImpl(false);
-        changed |= solveImpl(true);
+        changed |= solveImpl(digit, false);
+        changed |= solveImpl(digit, true);
         return changed;
     }
 
-    private boolean solveImpl(boolean isRow) {
+    private boolean solveImpl(int digit, boolean isRow) {
         boolean changed = false;
-        for (int digit = 1; digit <= 9; digit++) {
-            Map<Integer, List<Square>> hasDigit = new HashMap<>();
-            for (int index = 0; index < 9; index++) {
-                List<Square> squares = isRow ? sudoku.getRow(index) : sudoku.getColumn(index);
-                for (Square square : squares)
-                    if (!square.isSolved() && square.getCandidates().contains(digit))
-                        hasDigit.computeIfAbsent(index, k -> new ArrayList<>()).add(square);
-            }
-            List<Integer> possibleIndexes = new ArrayList<>();
-            for (int index = 0; index < 9; index++) {
-                if (!hasDigit.containsKey(index)) continue;
-                int size = hasDigit.get(index).size();
-                if (size == 2 || size == 3) possibleIndexes.add(index);
-            }
-            if (possibleIndexes.size() < 2) continue;
-            for (int i1 = 0; i1 < possibleIndexes.size(); i1++) {
-                int index1 = possibleIndexes.get(i1);
-                for (int i2 = i1 + 1; i2 < possibleIndexes.size(); i2++) {
-                    int index2 = possibleIndexes.get(i2);
-                    for (int index3 = 0; index3 < 9; index3++) {
-                        if (!hasDigit.containsKey(index3)) continue;
-                        if (index3 == index1 || index3 == index2) continue;
-                        Set<Integer> index1Contained = new HashSet<>();
-                        Set<Integer> index2Contained = new HashSet<>();
-                        Set<Integer> index3Contained = new HashSet<>();
-                        for (Square square : hasDigit.get(index1)) index1Contained.add(isRow ? square.getCol() : square.getRow());
-                        for (Square square : hasDigit.get(index2)) index2Contained.add(isRow ? square.getCol() : square.getRow());
-                        for (Square square : hasDigit.get(index3)) index3Contained.add(isRow ? square.getCol() : square.getRow());
-                        Set<Integer> shared = new HashSet<>(index1Contained);
-                        shared.retainAll(index2Contained);
-                        shared.retainAll(index3Contained);
-                        if (shared.size() != 3) continue;
-                        Set<Integer> extra = new HashSet<>(index3Contained);
-                        extra.removeAll(shared);
-                        int finalIndex = index3;
-                        List<Square> finSquares = extra.stream().map(i -> getSquare(isRow, finalIndex, i)).toList();
+        Map<Integer, List<Square>> hasDigit = new HashMap<>();
+        for (int index = 0; index < 9; index++) {
+            List<Square> squares = isRow ? board.getRow(index) : board.getColumn(index);
+            for (Square square : squares)
+                if (!square.isSolved() && square.getCandidates().contains(digit))
+                    hasDigit.computeIfAbsent(index, k -> new ArrayList<>()).add(square);
+        }
+        List<Integer> possibleIndexes = new ArrayList<>();
+        for (int index = 0; index < 9; index++) {
+            if (!hasDigit.containsKey(index)) continue;
+            int size = hasDigit.get(index).size();
+            if (size == 2 || size == 3) possibleIndexes.add(index);
+        }
+        if (possibleIndexes.size() < 2) return false;
+        for (int i1 = 0; i1 < possibleIndexes.size(); i1++) {
+            int index1 = possibleIndexes.get(i1);
+            for (int i2 = i1 + 1; i2 < possibleIndexes.size(); i2++) {
+                int index2 = possibleIndexes.get(i2);
+                for (int index3 = 0; index3 < 9; index3++) {
+                    if (!hasDigit.containsKey(index3)) continue;
+                    if (index3 == index1 || index3 == index2) continue;
+                    Set<Integer> index1Contained = new HashSet<>();
+                    Set<Integer> index2Contained = new HashSet<>();
+                    Set<Integer> index3Contained = new HashSet<>();
+                    for (Square square : hasDigit.get(index1)) index1Contained.add(isRow ? square.getCol() : square.getRow());
+                    for (Square square : hasDigit.get(index2)) index2Contained.add(isRow ? square.getCol() : square.getRow());
+                    for (Square square : hasDigit.get(index3)) index3Contained.add(isRow ? square.getCol() : square.getRow());
+                    Set<Integer> shared = new HashSet<>(index1Contained);
+                    shared.retainAll(index2Contained);
+                    shared.retainAll(index3Contained);
+                    if (shared.size() != 3) continue;
+                    Set<Integer> extra = new HashSet<>(index3Contained);
+                    extra.removeAll(shared);
+                    int finalIndex = index3;
+                    List<Square> finSquares = extra.stream().map(i -> getSquare(isRow, finalIndex, i)).toList();
 
-                        for (int reverseIndex : shared) {
-                            List<Square> squares = isRow ? sudoku.getColumn(reverseIndex) : sudoku.getRow(reverseIndex);
-                            for (Square square : squares) {
-                                if (square.isSolved()) continue;
-                                int index = isRow ? square.getRow() : square.getCol();
-                                if (index == index1 || index == index2 || index == index3) continue;
-                                List<Square> checkedSquares = new ArrayList<>(finSquares);
-                                checkedSquares.add(square);
-                                if (!SolverUtils.allInSameGroup(checkedSquares, true)) continue;
-                                changed |= square.getCandidates().remove(digit);
-                            }
+                    for (int reverseIndex : shared) {
+                        List<Square> squares = isRow ? board.getColumn(reverseIndex) : board.getRow(reverseIndex);
+                        for (Square square : squares) {
+                            if (square.isSolved()) continue;
+                            int index = isRow ? square.getRow() : square.getCol();
+                            if (index == index1 || index == index2 || index == index3) continue;
+                            List<Square> checkedSquares = new ArrayList<>(finSquares);
+                            checkedSquares.add(square);
+                            if (!SolverUtils.allInSameGroup(checkedSquares, true)) continue;
+                            changed |= square.getCandidates().remove(digit);
                         }
                     }
                 }
@@ -79,6 +77,6 @@ public class FinnedSwordfishStrategy extends SolveStrategy {
     }
 
     private Square getSquare(boolean isRow, int index, int pos) {
-        return isRow ? sudoku.getSquare(index, pos) : sudoku.getSquare(pos, index);
+        return isRow ? board.getSquare(index, pos) : board.getSquare(pos, index);
     }
 }
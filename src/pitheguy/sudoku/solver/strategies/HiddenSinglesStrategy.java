@@ -1,31 +1,34 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
-import pitheguy.sudoku.solver.ByGroupSolveStrategy;
-import pitheguy.sudoku.solver.SolverUtils;
+import pitheguy.sudoku.solver.Board;
+import pitheguy.sudoku.solver.SolveStrategy;
+import pitheguy.sudoku.solver.Topology;
 
-import java.util.List;
-import java.util.Optional;
-
-public class HiddenSinglesStrategy extends ByGroupSolveStrategy {
-    public HiddenSinglesStrategy(Sudoku sudoku) {
-        super(sudoku);
+public class HiddenSinglesStrategy extends SolveStrategy {
+    public HiddenSinglesStrategy(Board board) {
+        super(board);
     }
 
     @Override
-    public boolean solveGroup(List<Square> squares) {
+    public boolean solve() {
+        boolean changed = false;
+        for (int i = 0; i < 9; i++) {
+            changed |= solveUnit(Topology.rowUnit(i));
+            changed |= solveUnit(Topology.columnUnit(i));
+            changed |= solveUnit(Topology.boxUnit(i));
+        }
+        return changed;
+    }
+
+    private boolean solveUnit(int unit) {
         boolean changed = false;
         for (int digit = 1; digit <= 9; digit++) {
-            if (SolverUtils.hasDigitSolved(squares, digit)) continue;
-            int finalDigit = digit;
-            Optional<Square> hiddenSingle = SolverUtils.getOnlySquareThat(squares,
-                    square -> square.getCandidates().contains(finalDigit),
-                    true);
-            if (hiddenSingle.isPresent()) {
-                hiddenSingle.get().setValue(digit);
-                changed = true;
-            }
+            if (board.hasDigitSolved(unit, digit)) continue;
+            int positions = board.getUnitPositions(unit, digit);
+            if (Integer.bitCount(positions) != 1) continue;
+            int cell = Topology.UNIT_CELLS[unit][Integer.numberOfTrailingZeros(positions)];
+            board.getSquare(cell).setValue(digit);
+            changed = true;
         }
         return changed;
     }
@@ -1,15 +1,13 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
 import pitheguy.sudoku.solver.*;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class HiddenTripletsStrategy extends ByGroupSolveStrategy {
-    public HiddenTripletsStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public HiddenTripletsStrategy(Board board) {
+        super(board);
     }
 
     @Override
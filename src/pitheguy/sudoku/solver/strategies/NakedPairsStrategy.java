@@ -1,16 +1,16 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
+import pitheguy.sudoku.solver.Board;
 import pitheguy.sudoku.solver.ByGroupSolveStrategy;
 import pitheguy.sudoku.solver.DigitCandidates;
+import pitheguy.sudoku.solver.Square;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class NakedPairsStrategy extends ByGroupSolveStrategy {
-    public NakedPairsStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public NakedPairsStrategy(Board board) {
+        super(board);
     }
 
     @Override
@@ -1,19 +1,19 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
+import pitheguy.sudoku.solver.Board;
 import pitheguy.sudoku.solver.DigitCandidates;
 import pitheguy.sudoku.solver.SolveStrategy;
+import pitheguy.sudoku.solver.Square;
 
 public class NakedSinglesStrategy extends SolveStrategy {
-    public NakedSinglesStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public NakedSinglesStrategy(Board board) {
+        super(board);
     }
 
     @Override
     public boolean solve() {
         boolean changed = false;
-        for (Square square : sudoku.getAllSquares()) {
+        for (Square square : board.getAllSquares()) {
             if (square.isSolved()) continue;
             DigitCandidates candidates = square.getCandidates();
             if (candidates.count() == 1) {
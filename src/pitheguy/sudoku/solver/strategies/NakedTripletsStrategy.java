@@ -1,16 +1,16 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
+import pitheguy.sudoku.solver.Board;
 import pitheguy.sudoku.solver.ByGroupSolveStrategy;
 import pitheguy.sudoku.solver.DigitCandidates;
+import pitheguy.sudoku.solver.Square;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class NakedTripletsStrategy extends ByGroupSolveStrategy {
-    public NakedTripletsStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public NakedTripletsStrategy(Board board) {
+        super(board);
     }
 
     @Override
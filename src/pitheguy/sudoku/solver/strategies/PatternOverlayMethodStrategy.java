@@ -1,58 +1,60 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
-import pitheguy.sudoku.solver.SolveStrategy;
-import pitheguy.sudoku.solver.SolverUtils;
+import pitheguy.sudoku.solver.Board;
+import pitheguy.sudoku.solver.ByDigitSolveStrategy;
+import pitheguy.sudoku.solver.GroupType;
+import pitheguy.sudoku.solver.Square;
+import pitheguy.sudoku.solver.Topology;
 import pitheguy.sudoku.util.SquareSet;
 
 import java.util.*;
-import java.util.function.Function;
 
-public class PatternOverlayMethodStrategy extends SolveStrategy {
-    public PatternOverlayMethodStrategy(Sudoku sudoku) {
-        super(sudoku);
+public class PatternOverlayMethodStrategy extends ByDigitSolveStrategy {
+    public PatternOverlayMethodStrategy(Board board) {
+        super(board);
     }
 
     @Override
-    public boolean solve() {
+    protected boolean solveDigit(int digit) {
         boolean changed = false;
-        for (int digit = 1; digit <= 9; digit++) {
-            SquareSet containedCells = new SquareSet(sudoku);
-            for (Square square : sudoku.getAllSquares())
-                if (!square.isSolved() && square.getCandidates().contains(digit)) containedCells.add(square);
-            if (containedCells.size() > 40) continue; // Too many patterns to search through
-            Set<SquareSet> patterns = findPatterns(containedCells);
-            if (patterns.isEmpty()) continue;
-            int finalDigit = digit;
-            patterns.removeIf(pattern -> {
-                boolean valid = true;
-                valid &= checkGroup(sudoku::getRow, pattern, finalDigit);
-                valid &= checkGroup(sudoku::getColumn, pattern, finalDigit);
-                valid &= checkGroup(sudoku::getBox, pattern, finalDigit);
-                return !valid;
-            });
-            SquareSet coveredCells = new SquareSet(sudoku);
-            for (SquareSet pattern : patterns) coveredCells.addAll(pattern);
-            containedCells.removeAll(coveredCells);
-            for (Square square : containedCells) changed |= square.getCandidates().remove(digit);
-        }
+        SquareSet containedCells = new SquareSet(board);
+        for (Square square : board.getAllSquares())
+            if (!square.isSolved() && square.getCandidates().contains(digit)) containedCells.add(square);
+        if (containedCells.size() > 40) return false; // Too many patterns to search through
+        Set<SquareSet> patterns = findPatterns(containedCells);
+        if (patterns.isEmpty()) return false;
+        patterns.removeIf(pattern -> {
+            boolean valid = true;
+            valid &= checkGroup(GroupType.ROW, pattern, digit);
+            valid &= checkGroup(GroupType.COLUMN, pattern, digit);
+            valid &= checkGroup(GroupType.BOX, pattern, digit);
+            return !valid;
+        });
+        SquareSet coveredCells = new SquareSet(board);
+        for (SquareSet pattern : patterns) coveredCells.addAll(pattern);
+        containedCells.removeAll(coveredCells);
+        for (Square square : containedCells) changed |= square.getCandidates().remove(digit);
         return changed;
     }
 
-    private boolean checkGroup(Function<Integer, List<Square>> groupGetter, SquareSet pattern, int digit) {
-        boolean valid = true;
+    private boolean checkGroup(GroupType groupType, SquareSet pattern, int digit) {
         for (int i = 0; i < 9; i++) {
-            List<Square> squares = groupGetter.apply(i);
-            valid &= SolverUtils.hasDigitSolved(squares, digit) || pattern.containsAny(new SquareSet(sudoku, squares));
+            int unit = groupType.unit(i);
+            if (board.hasDigitSolved(unit, digit)) continue;
+            if (!containsAny(pattern, unit)) return false;
         }
-        return valid;
+        return true;
+    }
+
+    private boolean containsAny(SquareSet pattern, int unit) {
+        for (int cell : Topology.UNIT_CELLS[unit]) if (pattern.contains(board.getSquare(cell))) return true;
+        return false;
     }
 
     private Set<SquareSet> findPatterns(SquareSet squares) {
         Set<SquareSet> patterns = new HashSet<>();
         SquareSet remainingSquares = squares.copy();
-        SquareSet pattern = new SquareSet(sudoku);
+        SquareSet pattern = new SquareSet(board);
         findPatternsRecursive(null, remainingSquares, pattern, patterns);
         return patterns;
     }
@@ -1,50 +1,40 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.*;
-import pitheguy.sudoku.solver.DigitCandidates;
+import pitheguy.sudoku.solver.Board;
 import pitheguy.sudoku.solver.SolveStrategy;
-
-import java.util.List;
+import pitheguy.sudoku.solver.Topology;
 
 public class PointingPairsAndTriosStrategy extends SolveStrategy {
-    public PointingPairsAndTriosStrategy(Sudoku sudoku) {
-        super(sudoku);
+    private static final int[] BOX_ROW_MASKS = {0b000_000_111, 0b000_111_000, 0b111_000_000};
+    private static final int[] BOX_COLUMN_MASKS = {0b001_001_001, 0b010_010_010, 0b100_100_100};
+
+    public PointingPairsAndTriosStrategy(Board board) {
+        super(board);
     }
 
     @Override
     public boolean solve() {
         boolean changed = false;
         for (int box = 0; box < 9; box++) {
-            Box box1 = sudoku.boxes[box];
-            List<Square> squares = box1.getSquares();
+            int boxUnit = Topology.boxUnit(box);
             for (int digit = 1; digit <= 9; digit++) {
-                if (box1.hasDigitSolved(digit)) continue;
-                for (int row = 0; row < 3; row++) changed |= solveImpl(squares, row, digit, box1, true);
-                for (int col = 0; col < 3; col++) changed |= solveImpl(squares, col, digit, box1, false);
+                if (board.hasDigitSolved(boxUnit, digit)) continue;
+                for (int row = 0; row < 3; row++) changed |= solveImpl(box, row, digit, true);
+                for (int col = 0; col < 3; col++) changed |= solveImpl(box, col, digit, false);
             }
         }
         return changed;
     }
 
-    private static boolean solveImpl(List<Square> squares, int index, int digit, Box box, boolean isRow) {
+    private boolean solveImpl(int box, int index, int digit, boolean isRow) {
+        int positions = board.getUnitPositions(Topology.boxUnit(box), digit);
+        int lineMask = isRow ? BOX_ROW_MASKS[index] : BOX_COLUMN_MASKS[index];
+        if ((positions & lineMask) == 0 || (positions & ~lineMask) != 0) return false;
+        int line = isRow ? Topology.rowUnit((box / 3) * 3 + index) : Topology.columnUnit((box % 3) * 3 + index);
+        int boxSegment = 0b111 << (isRow ? (box % 3) * 3 : (box / 3) * 3);
         boolean changed = false;
-        boolean hasDigit = false;
-        for (Square square : squares) {
-            if (square.isSolved()) continue;
-            DigitCandidates candidates = square.getCandidates();
-            if ((isRow ? square.getRow() : square.getCol()) % 3 == index) {
-                if (candidates.contains(digit)) hasDigit = true;
-            } else if (candidates.contains(digit)) return false;
-        }
-        if (hasDigit) {
-            List<Square> affectedSquares = isRow ? box.getSquare(index, 0).getSurroundingRow() : box.getSquare(0, index).getSurroundingColumn();
-            for (Square currentSquare : affectedSquares) {
-                if (currentSquare.isSolved()) continue;
-                if (!squares.contains(currentSquare)) {
-                    changed |= currentSquare.getCandidates().remove(digit);
-                }
-            }
-        }
+        for (int affected = board.getUnitPositions(line, digit) & ~boxSegment; affected != 0; affected &= affected - 1)
+            changed |= board.removeCandidate(Topology.UNIT_CELLS[line][Integer.numberOfTrailingZeros(affected)], digit);
         return changed;
     }
 }
@@ -1,15 +1,15 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
+import pitheguy.sudoku.solver.Board;
 import pitheguy.sudoku.solver.SolveStrategy;
 import pitheguy.sudoku.solver.SolverUtils;
+import pitheguy.sudoku.solver.Square;
 
 import java.util.*;
 
 public class RectangleEliminationStrategy extends SolveStrategy {
-    public RectangleEliminationStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public RectangleEliminationStrategy(Board board) {
+        super(board);
     }
 
     @Override
@@ -17,8 +17,8 @@ public class RectangleEliminationStrategy extends SolveStrategy {
         for (int digit = 1; digit <= 9; digit++) {
             for (int row = 0; row < 9; row++) {
                 for (int col = 0; col < 9; col++) {
-                    if (solveImpl(sudoku.getSquare(row, col), digit, true)) return true;
-                    if (solveImpl(sudoku.getSquare(row, col), digit, false)) return true;
+                    if (solveImpl(board.getSquare(row, col), digit, true)) return true;
+                    if (solveImpl(board.getSquare(row, col), digit, false)) return true;
                 }
             }
         }
@@ -42,7 +42,7 @@ public class RectangleEliminationStrategy extends SolveStrategy {
         wing2:
         for (Square wing2 : possibleSquares) {
             if (wing2 == square) continue;
-            Square forthCorner = isRow ? sudoku.getSquare(wing2.getRow(), wing1.getCol()) : sudoku.getSquare(wing1.getRow(), wing2.getCol());;
+            Square forthCorner = isRow ? board.getSquare(wing2.getRow(), wing1.getCol()) : board.getSquare(wing1.getRow(), wing2.getCol());;
             if (forthCorner.getBox() == wing1.getBox() || forthCorner.getBox() == wing2.getBox()) continue;
             List<Square> box = forthCorner.getSurroundingBox();
             if (SolverUtils.hasDigitSolved(box, digit)) continue;
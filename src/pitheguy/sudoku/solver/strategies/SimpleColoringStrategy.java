@@ -1,9 +1,9 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
+import pitheguy.sudoku.solver.Board;
 import pitheguy.sudoku.solver.SolveStrategy;
 import pitheguy.sudoku.solver.SolverUtils;
+import pitheguy.sudoku.solver.Square;
 import pitheguy.sudoku.util.Pair;
 import pitheguy.sudoku.util.Util;
 
@@ -11,15 +11,15 @@ import java.util.*;
 import java.util.List;
 
 public class SimpleColoringStrategy extends SolveStrategy {
-    public SimpleColoringStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public SimpleColoringStrategy(Board board) {
+        super(board);
     }
 
     @Override
     public boolean solve() {
         for (int digit = 1; digit <= 9; digit++) {
             Set<Square> squares = new HashSet<>();
-            for (Square square : sudoku.getAllSquares()) {
+            for (Square square : board.getAllSquares()) {
                 if (square.isSolved()) continue;
                 if (square.getCandidates().contains(digit)) squares.add(square);
             }
@@ -30,7 +30,6 @@ public class SimpleColoringStrategy extends SolveStrategy {
                 Node node1 = graph.getNode(pair.first());
                 Node node2 = graph.getNode(pair.second());
                 if (node1.color() == node2.color() && node1.network() == node2.network()) {
-                    //System.out.println("Match found: " + pair.first() + " and " + pair.second() + " are both " + node1.color() + " for digit " + digit);
                     for (Square square : graph.getAllSquaresForColor(node1.color(), node1.network()))
                         square.getCandidates().remove(digit);
                     return true;
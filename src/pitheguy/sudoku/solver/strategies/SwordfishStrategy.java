@@ -1,65 +1,57 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
-import pitheguy.sudoku.solver.SolveStrategy;
+import pitheguy.sudoku.solver.Board;
+import pitheguy.sudoku.solver.ByDigitSolveStrategy;
+import pitheguy.sudoku.solver.Topology;
 
-import java.util.*;
+public class SwordfishStrategy extends ByDigitSolveStrategy {
+    private final int[] linePositions = new int[9];
 
-public class SwordfishStrategy extends SolveStrategy {
-    public SwordfishStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public SwordfishStrategy(Board board) {
+        super(board);
     }
 
     @Override
-    public boolean solve() {
+    protected boolean solveDigit(int digit) {
         boolean changed = false;
-        changed |= solveImpl(true);
-        changed |= solveImpl(false);
+        changed |= solveImpl(digit, true);
+        changed |= solveImpl(digit, false);
         return changed;
     }
 
-    private boolean solveImpl(boolean isRow) {
+    private boolean solveImpl(int digit, boolean isRow) {
         boolean changed = false;
-        for (int digit = 1; digit <= 9; digit++) {
-            Map<Integer, List<Square>> hasDigit = new HashMap<>();
-            for (int index = 0; index < 9; index++) {
-                List<Square> squares = isRow ? sudoku.getRow(index) : sudoku.getColumn(index);
-                for (Square square : squares)
-                    if (!square.isSolved() && square.getCandidates().contains(digit))
-                        hasDigit.computeIfAbsent(index, k -> new ArrayList<>()).add(square);
-            }
-            List<Integer> possibleIndexes = new ArrayList<>();
-            for (int index = 0; index < 9; index++) {
-                if (!hasDigit.containsKey(index)) continue;
-                int size = hasDigit.get(index).size();
-                if (size == 2 || size == 3) possibleIndexes.add(index);
-            }
-            if (possibleIndexes.size() < 3) continue;
-            for (int i1 = 0; i1 < possibleIndexes.size(); i1++) {
-                int index1 = possibleIndexes.get(i1);
-                for (int i2 = i1 + 1; i2 < possibleIndexes.size(); i2++) {
-                    int index2 = possibleIndexes.get(i2);
-                    for (int i3 = i2 + 1; i3 < possibleIndexes.size(); i3++) {
-                        int index3 = possibleIndexes.get(i3);
-                        Set<Integer> reverseIndexes = new HashSet<>();
-                        for (Square square : hasDigit.get(index1)) reverseIndexes.add(isRow ? square.getCol() : square.getRow());
-                        for (Square square : hasDigit.get(index2)) reverseIndexes.add(isRow ? square.getCol() : square.getRow());
-                        for (Square square : hasDigit.get(index3)) reverseIndexes.add(isRow ? square.getCol() : square.getRow());
-                        if (reverseIndexes.size() != 3) continue;
-                        for (int reverseIndex : reverseIndexes) {
-                            List<Square> squares = isRow ? sudoku.getColumn(reverseIndex) : sudoku.getRow(reverseIndex);
-                            for (Square square : squares) {
-                                if (square.isSolved()) continue;
-                                int index = isRow ? square.getRow() : square.getCol();
-                                if (index == index1 || index == index2 || index == index3) continue;
-                                changed |= square.getCandidates().remove(digit);
-                            }
-                        }
-                    }
+        int candidateLines = 0;
+        for (int index = 0; index < 9; index++) {
+            linePositions[index] = board.getUnitPositions(isRow ? Topology.rowUnit(index) : Topology.columnUnit(index), digit);
+            int size = Integer.bitCount(linePositions[index]);
+            if (size == 2 || size == 3) candidateLines |= 1 << index;
+        }
+        if (Integer.bitCount(candidateLines) < 3) return false;
+        for (int index1 = 0; index1 < 9; index1++) {
+            if ((candidateLines & (1 << index1)) == 0) continue;
+            for (int index2 = index1 + 1; index2 < 9; index2++) {
+                if ((candidateLines & (1 << index2)) == 0) continue;
+                for (int index3 = index2 + 1; index3 < 9; index3++) {
+                    if ((candidateLines & (1 << index3)) == 0) continue;
+                    int reverseIndexes = linePositions[index1] | linePositions[index2] | linePositions[index3];
+                    if (Integer.bitCount(reverseIndexes) != 3) continue;
+                    int baseLines = (1 << index1) | (1 << index2) | (1 << index3);
+                    changed |= eliminate(reverseIndexes, baseLines, digit, isRow);
                 }
             }
         }
         return changed;
     }
+
+    private boolean eliminate(int reverseIndexes, int baseLines, int digit, boolean isRow) {
+        boolean changed = false;
+        for (; reverseIndexes != 0; reverseIndexes &= reverseIndexes - 1) {
+            int reverseIndex = Integer.numberOfTrailingZeros(reverseIndexes);
+            int unit = isRow ? Topology.columnUnit(reverseIndex) : Topology.rowUnit(reverseIndex);
+            for (int affected = board.getUnitPositions(unit, digit) & ~baseLines; affected != 0; affected &= affected - 1)
+                changed |= board.removeCandidate(Topology.UNIT_CELLS[unit][Integer.numberOfTrailingZeros(affected)], digit);
+        }
+        return changed;
+    }
 }
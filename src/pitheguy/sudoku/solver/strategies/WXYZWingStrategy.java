@@ -1,20 +1,18 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
 import pitheguy.sudoku.solver.*;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class WXYZWingStrategy extends SolveStrategy {
-    public WXYZWingStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public WXYZWingStrategy(Board board) {
+        super(board);
     }
 
     @Override
     public boolean solve() {
-        List<Square> squares = new ArrayList<>(sudoku.getAllSquares());
+        List<Square> squares = new ArrayList<>(board.getAllSquares());
         squares.removeIf(Square::isSolved);
         squares.removeIf(square -> square.getCandidates().count() > 4);
         if (squares.size() < 4) return false;
@@ -49,7 +47,7 @@ public class WXYZWingStrategy extends SolveStrategy {
             for (Square square : possibleMatch.squares) if (square.getCandidates().contains(z)) containsZ.add(square);
             boolean changed = false;
             squares:
-            for (Square square : sudoku.getAllSquares()) {
+            for (Square square : board.getAllSquares()) {
                 if (possibleMatch.squares.contains(square)) continue;
                 if (square.isSolved()) continue;
                 for (Square current : containsZ) if (!SolverUtils.isConnected(square, current)) continue squares;
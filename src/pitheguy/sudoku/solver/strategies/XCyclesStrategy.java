@@ -1,10 +1,10 @@
 
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
+import pitheguy.sudoku.solver.Board;
 import pitheguy.sudoku.solver.SolveStrategy;
 import pitheguy.sudoku.solver.SolverUtils;
+import pitheguy.sudoku.solver.Square;
 import pitheguy.sudoku.util.Pair;
 import pitheguy.sudoku.util.Util;
 
@@ -12,15 +12,15 @@ import java.util.*;
 
 public class XCyclesStrategy extends SolveStrategy {
 
-    public XCyclesStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public XCyclesStrategy(Board board) {
+        super(board);
     }
 
     @Override
     public boolean solve() {
         for (int digit = 1; digit <= 9; digit++) {
             Set<Cycle> allCycles = new LinkedHashSet<>();
-            for (Square square : sudoku.getAllSquares()) {
+            for (Square square : board.getAllSquares()) {
                 if (square.isSolved()) continue;
                 if (!square.getCandidates().contains(digit)) continue;
                 findCycles(square, digit, new Cycle(), allCycles, true);
@@ -28,8 +28,7 @@ public class XCyclesStrategy extends SolveStrategy {
             }
             for (Cycle cycle : allCycles) {
                 boolean changed = false;
-                //System.out.println("Cycle found for digit " + digit + ": " + cycle);
-                for (Square square : sudoku.getAllSquares()) {
+                for (Square square : board.getAllSquares()) {
                     if (square.isSolved()) continue;
                     if (cycle.contains(square)) continue;
                     if (!square.getCandidates().contains(digit)) continue;
@@ -47,7 +46,6 @@ public class XCyclesStrategy extends SolveStrategy {
                         }
                     }
                     if (!valid) continue;
-                    //System.out.println("Removing from " + square);
                     changed |= square.getCandidates().remove(digit);
                 }
                 if (changed) return true;
@@ -88,8 +86,9 @@ public class XCyclesStrategy extends SolveStrategy {
 
     private List<Square> findWeakLinksForGroup(List<Square> group, int digit) {
         if (SolverUtils.hasDigitSolved(group, digit)) return Collections.emptyList();
-        group.removeIf(square -> square.isSolved() || square.getCandidates().contains(digit));
-        return group;
+        List<Square> links = new ArrayList<>(group);
+        links.removeIf(square -> square.isSolved() || square.getCandidates().contains(digit));
+        return links;
     }
 
     private static class Cycle extends ArrayList<Square> {
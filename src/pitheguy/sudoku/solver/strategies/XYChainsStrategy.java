@@ -1,7 +1,5 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
 import pitheguy.sudoku.solver.*;
 import pitheguy.sudoku.util.SquareSet;
 
@@ -10,8 +8,13 @@ import java.util.*;
 public class XYChainsStrategy extends SolveStrategy {
     private final Map<Square, List<Square>> connectedBivalueSquaresCache = new HashMap<>();
 
-    public XYChainsStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public XYChainsStrategy(Board board) {
+        super(board);
+    }
+
+    @Override
+    public void reset() {
+        connectedBivalueSquaresCache.clear();
     }
 
     @Override
@@ -22,9 +25,9 @@ public class XYChainsStrategy extends SolveStrategy {
     }
 
     private boolean solveImpl(boolean backtrack) {
-        List<Square> bivalueSquares = SolverUtils.getAllBivalueSquares(sudoku);
+        List<Square> bivalueSquares = SolverUtils.getAllBivalueSquares(board);
         Set<List<Square>> allChains = new LinkedHashSet<>();
-        for (Square square : bivalueSquares) buildChain(square, new ArrayList<>(), allChains, new SquareSet(sudoku), backtrack);
+        for (Square square : bivalueSquares) buildChain(square, new ArrayList<>(), allChains, new SquareSet(board), backtrack);
         for (List<Square> chain : allChains) {
             if (chain.size() < 3) continue;
             Square start = chain.getFirst();
@@ -43,13 +46,11 @@ public class XYChainsStrategy extends SolveStrategy {
 
     private boolean processXYChain(List<Square> chain, int candidate) {
         if (!isValidChain(chain, candidate)) return false;
-        //System.out.println("Chain found: " + chain);
-        for (Square square : sudoku.getAllSquares()) {
+        for (Square square : board.getAllSquares()) {
             if (square.isSolved()) continue;
             if (chain.contains(square)) continue;
             if (SolverUtils.isConnected(square, chain.getFirst()) &&
                 SolverUtils.isConnected(square, chain.getLast())) {
-                //System.out.println("Removing " + candidate + " from " + square);
                 if (square.getCandidates().remove(candidate)) return true;
             }
         }
@@ -111,7 +112,6 @@ public class XYChainsStrategy extends SolveStrategy {
     }
 
     private void buildChain(Square square, List<Square> chain, Set<List<Square>> allChains, SquareSet visited, boolean backtrack) {
-        //System.out.println("buildChain: " + square + " chain: " + chain);
         if (chain.size() > 10) return;
         if (!isValidPartialChain(chain)) return;
         if (visited.contains(square)) {
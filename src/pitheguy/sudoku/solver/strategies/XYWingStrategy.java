@@ -1,16 +1,16 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
+import pitheguy.sudoku.solver.Board;
 import pitheguy.sudoku.solver.SolveStrategy;
 import pitheguy.sudoku.solver.SolverUtils;
+import pitheguy.sudoku.solver.Square;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class XYWingStrategy extends SolveStrategy {
-    public XYWingStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public XYWingStrategy(Board board) {
+        super(board);
     }
 
     @Override
@@ -19,7 +19,7 @@ public class XYWingStrategy extends SolveStrategy {
         List<Square> bivalueCells = new ArrayList<>();
         for (int row = 0; row < 9; row++) {
             for (int col = 0; col < 9; col++) {
-                Square square = sudoku.getSquare(row, col);
+                Square square = board.getSquare(row, col);
                 if (!square.isSolved() && square.getCandidates().count() == 2) bivalueCells.add(square);
             }
         }
@@ -47,7 +47,7 @@ public class XYWingStrategy extends SolveStrategy {
             }
         }
         for (Match match : matches) {
-            for (Square square : sudoku.getAllSquares()) {
+            for (Square square : board.getAllSquares()) {
                 if (square == match.pivot || square == match.wing1 || square == match.wing2) continue;
                 if (square.isSolved()) continue;
                 if (SolverUtils.isConnected(square, match.wing1) && SolverUtils.isConnected(square, match.wing2))
@@ -1,15 +1,13 @@
 package pitheguy.sudoku.solver.strategies;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
 import pitheguy.sudoku.solver.*;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class XYZWingStrategy extends SolveStrategy {
-    public XYZWingStrategy(Sudoku sudoku) {
-        super(sudoku);
+    public XYZWingStrategy(Board board) {
+        super(board);
     }
 
     public boolean solve() {
@@ -18,7 +16,7 @@ public class XYZWingStrategy extends SolveStrategy {
         List<Square> bivalueCells = new ArrayList<>();
         for (int row = 0; row < 9; row++) {
             for (int col = 0; col < 9; col++) {
-                Square square = sudoku.getSquare(row, col);
+                Square square = board.getSquare(row, col);
                 if (square.isSolved()) continue;
                 if (square.getCandidates().count() == 2) bivalueCells.add(square);
                 if (square.getCandidates().count() == 3) trivalueCells.add(square);
@@ -49,7 +47,7 @@ public class XYZWingStrategy extends SolveStrategy {
             }
         }
         for (Match match : matches) {
-            for (Square square : sudoku.getAllSquares()) {
+            for (Square square : board.getAllSquares()) {
                 if (square.isSolved()) continue;
                 if (square == match.pivot || square == match.wing1 || square == match.wing2) continue;
                 if (SolverUtils.isConnected(square, match.pivot) &&
@@ -1,25 +1,25 @@
 package pitheguy.sudoku.util;
 
-import pitheguy.sudoku.gui.Square;
-import pitheguy.sudoku.gui.Sudoku;
+import pitheguy.sudoku.solver.Board;
+import pitheguy.sudoku.solver.Square;
 
 import java.util.*;
 
 public class SquareSet implements Iterable<Square> {
-    private final Sudoku sudoku;
+    private final Board board;
     private final BitSet contained;
 
-    public SquareSet(Sudoku sudoku) {
-        this(sudoku, new BitSet(81));
+    public SquareSet(Board board) {
+        this(board, new BitSet(81));
     }
 
-    public SquareSet(Sudoku sudoku, Collection<Square> squares) {
-        this(sudoku, new BitSet(81));
+    public SquareSet(Board board, Collection<Square> squares) {
+        this(board, new BitSet(81));
         addAll(squares);
     }
 
-    private SquareSet(Sudoku sudoku, BitSet contained) {
-        this.sudoku = sudoku;
+    private SquareSet(Board board, BitSet contained) {
+        this.board = board;
         this.contained = contained;
     }
 
@@ -56,7 +56,7 @@ public class SquareSet implements Iterable<Square> {
     }
 
     public void removeAll(Collection<Square> c) {
-        removeAll(new SquareSet(sudoku, c));
+        removeAll(new SquareSet(board, c));
     }
 
     public boolean contains(Square square) {
@@ -68,7 +68,7 @@ public class SquareSet implements Iterable<Square> {
     }
 
     public SquareSet copy() {
-        return new SquareSet(sudoku, contained);
+        return new SquareSet(board, contained);
     }
 
     @Override
@@ -98,7 +98,7 @@ public class SquareSet implements Iterable<Square> {
                 nextIndex = contained.nextSetBit(nextIndex + 1);
                 int row = currentIndex / 9;
                 int col = currentIndex % 9;
-                return sudoku.getSquare(row, col);
+                return board.getSquare(row, col);
             }
         };
     }